@@ -0,0 +1,93 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static me.qoomon.UncheckedExceptions.unchecked;
+import static org.eclipse.jgit.lib.Constants.R_HEADS;
+import static org.eclipse.jgit.lib.Constants.R_REMOTES;
+
+/**
+ * Local and remote tracking branch refs by commit, to resolve a branch name for a detached HEAD.
+ * <p>
+ * The index is built by one single scan of <code>packed-refs</code> and loose branch refs,
+ * branch refs point to commits directly, so no ref needs to be peeled.
+ */
+public final class BranchRefIndex {
+
+    private final Map<ObjectId, List<String>> refNames;
+
+    private BranchRefIndex(Map<ObjectId, List<String>> refNames) {
+        this.refNames = refNames;
+    }
+
+    /**
+     * @param repository repository
+     * @return index of all local and remote tracking branch refs of <code>repository</code>
+     */
+    public static BranchRefIndex read(Repository repository) {
+        Map<ObjectId, List<String>> refNames = new HashMap<>();
+        for (Ref ref : unchecked(() -> repository.getRefDatabase().getRefsByPrefix(R_HEADS, R_REMOTES))) {
+            // skip e.g. refs/remotes/origin/HEAD
+            if (!ref.isSymbolic() && ref.getObjectId() != null) {
+                refNames.computeIfAbsent(ref.getObjectId(), commit -> new ArrayList<>(1)).add(ref.getName());
+            }
+        }
+        return new BranchRefIndex(refNames);
+    }
+
+    /**
+     * @param commit commit
+     * @return full names of branch refs pointing at <code>commit</code>
+     */
+    public List<String> refNames(ObjectId commit) {
+        return refNames.getOrDefault(commit, emptyList());
+    }
+
+    /**
+     * @param commit         commit
+     * @param refNamePatterns full match patterns of branch ref names in order of preference,
+     *                        e.g. <code>refs/remotes/origin/.+</code>
+     * @return name of the branch pointing at <code>commit</code>, that matches the first possible pattern,
+     * lowest ref name first, or null, if there is none
+     */
+    public String branch(ObjectId commit, List<Pattern> refNamePatterns) {
+        List<String> commitRefNames = refNames(commit);
+        for (Pattern refNamePattern : refNamePatterns) {
+            String preferredRefName = null;
+            for (String refName : commitRefNames) {
+                if (RegexGuard.matches(refNamePattern, refName)
+                        && (preferredRefName == null || refName.compareTo(preferredRefName) < 0)) {
+                    preferredRefName = refName;
+                }
+            }
+            if (preferredRefName != null) {
+                return branchName(preferredRefName);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param refName full branch ref name
+     * @return branch name without <code>refs/heads/</code> or <code>refs/remotes/REMOTE/</code> prefix
+     */
+    static String branchName(String refName) {
+        if (refName.startsWith(R_HEADS)) {
+            return refName.substring(R_HEADS.length());
+        }
+        if (refName.startsWith(R_REMOTES)) {
+            int remoteEnd = refName.indexOf('/', R_REMOTES.length());
+            return remoteEnd >= 0 ? refName.substring(remoteEnd + 1) : refName.substring(R_REMOTES.length());
+        }
+        return refName;
+    }
+}
@@ -0,0 +1,223 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectDatabase;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+/**
+ * Read-only view of a git commit-graph file (<code>objects/info/commit-graph</code>, format version 1).
+ * <p>
+ * Provides parents, root trees, generation numbers and commit times by graph position, without inflating any commit object.
+ * Split commit-graph chains are not supported.
+ */
+final class CommitGraph {
+
+    static final String FILE_PATH = "info/commit-graph";
+
+    private static final int SIGNATURE = 0x43475048; // CGPH
+    private static final int CHUNK_OID_FANOUT = 0x4f494446; // OIDF
+    private static final int CHUNK_OID_LOOKUP = 0x4f49444c; // OIDL
+    private static final int CHUNK_COMMIT_DATA = 0x43444154; // CDAT
+    private static final int CHUNK_EXTRA_EDGES = 0x45444745; // EDGE
+
+    private static final int HASH_LENGTH = 20;
+    private static final int COMMIT_DATA_LENGTH = HASH_LENGTH + 16;
+
+    private static final int PARENT_NONE = 0x70000000;
+    private static final int PARENT_EXTRA_EDGES = 0x80000000;
+    private static final int EDGE_LAST = 0x80000000;
+
+    private final ByteBuffer buffer;
+    private final int fanoutOffset;
+    private final int lookupOffset;
+    private final int commitDataOffset;
+    private final int extraEdgesOffset;
+    private final int size;
+
+    private CommitGraph(ByteBuffer buffer, int fanoutOffset, int lookupOffset, int commitDataOffset, int extraEdgesOffset) {
+        this.buffer = buffer;
+        this.fanoutOffset = fanoutOffset;
+        this.lookupOffset = lookupOffset;
+        this.commitDataOffset = commitDataOffset;
+        this.extraEdgesOffset = extraEdgesOffset;
+        this.size = buffer.getInt(fanoutOffset + 255 * 4);
+    }
+
+    /**
+     * @param repository repository
+     * @return commit-graph of <code>repository</code> or null, if there is no readable commit-graph file
+     */
+    static CommitGraph read(Repository repository) {
+        ObjectDatabase objectDatabase = repository.getObjectDatabase();
+        if (!(objectDatabase instanceof ObjectDirectory)) {
+            return null;
+        }
+        File commitGraphFile = new File(((ObjectDirectory) objectDatabase).getDirectory(), FILE_PATH);
+        if (!commitGraphFile.isFile()) {
+            return null;
+        }
+        try {
+            // read into heap, a memory mapping would keep the file locked on windows until it is garbage collected
+            return read(ByteBuffer.wrap(Files.readAllBytes(commitGraphFile.toPath())));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    static CommitGraph read(ByteBuffer buffer) {
+        if (buffer.getInt(0) != SIGNATURE
+                || buffer.get(4) != 1 // version
+                || buffer.get(5) != 1 // SHA-1
+                || buffer.get(7) != 0) { // base graphs
+            return null;
+        }
+        int chunkCount = buffer.get(6) & 0xff;
+        int fanoutOffset = -1;
+        int lookupOffset = -1;
+        int commitDataOffset = -1;
+        int extraEdgesOffset = -1;
+        for (int i = 0; i < chunkCount; i++) {
+            int chunkId = buffer.getInt(8 + i * 12);
+            int chunkOffset = Math.toIntExact(buffer.getLong(8 + i * 12 + 4));
+            switch (chunkId) {
+                case CHUNK_OID_FANOUT:
+                    fanoutOffset = chunkOffset;
+                    break;
+                case CHUNK_OID_LOOKUP:
+                    lookupOffset = chunkOffset;
+                    break;
+                case CHUNK_COMMIT_DATA:
+                    commitDataOffset = chunkOffset;
+                    break;
+                case CHUNK_EXTRA_EDGES:
+                    extraEdgesOffset = chunkOffset;
+                    break;
+                default:
+                    // optional chunk
+            }
+        }
+        if (fanoutOffset < 0 || lookupOffset < 0 || commitDataOffset < 0) {
+            return null;
+        }
+        CommitGraph commitGraph = new CommitGraph(buffer, fanoutOffset, lookupOffset, commitDataOffset, extraEdgesOffset);
+        if (commitGraph.size() > 0 && commitGraph.generation(0) == 0) {
+            // written without generation numbers
+            return null;
+        }
+        return commitGraph;
+    }
+
+    /**
+     * @return number of commits within the graph
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param commitId commit id
+     * @return graph position of <code>commitId</code> or -1, if commit is not part of the graph
+     */
+    int position(AnyObjectId commitId) {
+        byte[] id = new byte[HASH_LENGTH];
+        commitId.copyRawTo(id, 0);
+        int firstByte = id[0] & 0xff;
+        int low = firstByte == 0 ? 0 : buffer.getInt(fanoutOffset + (firstByte - 1) * 4);
+        int high = buffer.getInt(fanoutOffset + firstByte * 4) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareId(lookupOffset + middle * HASH_LENGTH, id);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    ObjectId objectId(int position) {
+        return readId(lookupOffset + position * HASH_LENGTH);
+    }
+
+    /**
+     * @param position graph position
+     * @return root tree id of commit
+     */
+    ObjectId treeId(int position) {
+        return readId(commitDataOffset + position * COMMIT_DATA_LENGTH);
+    }
+
+    /**
+     * @param position graph position
+     * @param index    parent index
+     * @return graph position of parent or -1, if commit has no parent with <code>index</code>
+     */
+    int parent(int position, int index) {
+        int dataOffset = commitDataOffset + position * COMMIT_DATA_LENGTH + HASH_LENGTH;
+        int firstParent = buffer.getInt(dataOffset);
+        if (index == 0 || firstParent == PARENT_NONE) {
+            return firstParent == PARENT_NONE ? -1 : firstParent;
+        }
+        int secondParent = buffer.getInt(dataOffset + 4);
+        if (secondParent == PARENT_NONE) {
+            return -1;
+        }
+        if ((secondParent & PARENT_EXTRA_EDGES) == 0) {
+            return index == 1 ? secondParent : -1;
+        }
+        int edgeOffset = extraEdgesOffset + (secondParent & ~PARENT_EXTRA_EDGES) * 4;
+        for (int i = 1; ; i++, edgeOffset += 4) {
+            int edge = buffer.getInt(edgeOffset);
+            if (i == index) {
+                return edge & ~EDGE_LAST;
+            }
+            if ((edge & EDGE_LAST) != 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @param position graph position
+     * @return topological level, 1 for root commits
+     */
+    int generation(int position) {
+        return buffer.getInt(commitDataOffset + position * COMMIT_DATA_LENGTH + HASH_LENGTH + 8) >>> 2;
+    }
+
+    /**
+     * @param position graph position
+     * @return commit time in seconds since epoch
+     */
+    long commitTime(int position) {
+        return buffer.getLong(commitDataOffset + position * COMMIT_DATA_LENGTH + HASH_LENGTH + 8) & 0x3ffffffffL;
+    }
+
+    private ObjectId readId(int offset) {
+        byte[] id = new byte[HASH_LENGTH];
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            id[i] = buffer.get(offset + i);
+        }
+        return ObjectId.fromRaw(id);
+    }
+
+    private int compareId(int offset, byte[] id) {
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            int comparison = (buffer.get(offset + i) & 0xff) - (id[i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,249 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static me.qoomon.UncheckedExceptions.unchecked;
+
+/**
+ * Ancestry walk on top of a {@link CommitGraph}.
+ * <p>
+ * Commits are identified by int nodes, graph commits by their graph position.
+ * Commits created after the commit-graph has been written are parsed once and appended as additional nodes.
+ */
+final class CommitGraphWalk implements AutoCloseable {
+
+    private final CommitGraph commitGraph;
+    private final RevWalk revWalk;
+
+    private final List<RevCommit> additionalCommits = new ArrayList<>();
+    private final Map<ObjectId, Integer> additionalNodes = new HashMap<>();
+    private final List<int[]> additionalParents = new ArrayList<>();
+    private final List<Integer> additionalGenerations = new ArrayList<>();
+
+    CommitGraphWalk(Repository repository, CommitGraph commitGraph) {
+        this.commitGraph = commitGraph;
+        this.revWalk = new RevWalk(repository);
+    }
+
+    /**
+     * @param commitId commit id
+     * @return node of <code>commitId</code>
+     */
+    int node(AnyObjectId commitId) {
+        int position = commitGraph.position(commitId);
+        if (position >= 0) {
+            return position;
+        }
+        Integer additionalNode = additionalNodes.get(commitId);
+        if (additionalNode != null) {
+            return additionalNode;
+        }
+
+        RevCommit commit = unchecked(() -> revWalk.parseCommit(commitId));
+        int node = commitGraph.size() + additionalCommits.size();
+        additionalCommits.add(commit);
+        additionalNodes.put(commit.copy(), node);
+        additionalParents.add(null); // resolved lazily, parents may be additional commits as well
+        additionalGenerations.add(null);
+        return node;
+    }
+
+    ObjectId objectId(int node) {
+        if (node < commitGraph.size()) {
+            return commitGraph.objectId(node);
+        }
+        return additionalCommits.get(node - commitGraph.size()).copy();
+    }
+
+    ObjectId treeId(int node) {
+        if (node < commitGraph.size()) {
+            return commitGraph.treeId(node);
+        }
+        return additionalCommits.get(node - commitGraph.size()).getTree().copy();
+    }
+
+    long commitTime(int node) {
+        if (node < commitGraph.size()) {
+            return commitGraph.commitTime(node);
+        }
+        return additionalCommits.get(node - commitGraph.size()).getCommitTime() & 0xffffffffL;
+    }
+
+    /**
+     * @param node  commit node
+     * @param index parent index
+     * @return parent node or -1, if commit has no parent with <code>index</code>
+     */
+    int parent(int node, int index) {
+        if (node < commitGraph.size()) {
+            return commitGraph.parent(node, index);
+        }
+        int additionalIndex = node - commitGraph.size();
+        int[] parents = additionalParents.get(additionalIndex);
+        if (parents == null) {
+            RevCommit commit = additionalCommits.get(additionalIndex);
+            parents = new int[commit.getParentCount()];
+            for (int i = 0; i < parents.length; i++) {
+                parents[i] = node(commit.getParent(i));
+            }
+            additionalParents.set(additionalIndex, parents);
+        }
+        return index < parents.length ? parents[index] : -1;
+    }
+
+    /**
+     * @param node commit node
+     * @return topological level, 1 for root commits, a commit has a higher generation than any of its parents
+     */
+    int generation(int node) {
+        if (node < commitGraph.size()) {
+            return commitGraph.generation(node);
+        }
+        Integer generation = additionalGenerations.get(node - commitGraph.size());
+        if (generation != null) {
+            return generation;
+        }
+
+        // additional commits are resolved parents first, without recursion
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            int current = stack.peek();
+            int currentGeneration = 1;
+            boolean parentsResolved = true;
+            for (int i = 0, parent; (parent = parent(current, i)) >= 0; i++) {
+                if (parent >= commitGraph.size() && additionalGenerations.get(parent - commitGraph.size()) == null) {
+                    stack.push(parent);
+                    parentsResolved = false;
+                } else if (parentsResolved) {
+                    currentGeneration = Math.max(currentGeneration, generation(parent) + 1);
+                }
+            }
+            if (parentsResolved) {
+                stack.pop();
+                additionalGenerations.set(current - commitGraph.size(), currentGeneration);
+            }
+        }
+        return additionalGenerations.get(node - commitGraph.size());
+    }
+
+    /**
+     * Same as <code>git rev-list --count uninteresting..node</code>.
+     * <p>
+     * Walks by descending generation, so every commit is visited after all its children. The walk stops as soon as
+     * every commit left to visit is reachable from <code>uninteresting</code>, instead of walking whole history.
+     *
+     * @param node          commit node
+     * @param uninteresting commit node
+     * @param limit         maximum count of interest
+     * @return number of commits reachable from <code>node</code>, but not from <code>uninteresting</code>,
+     * or <code>limit</code> if there are at least <code>limit</code> of them
+     */
+    int count(int node, int uninteresting, int limit) {
+        if (node == uninteresting) {
+            return 0;
+        }
+        PriorityQueue<Integer> queue = new PriorityQueue<>(
+                (queuedNode, otherQueuedNode) -> Integer.compare(generation(otherQueuedNode), generation(queuedNode)));
+        BitSet queued = new BitSet();
+        BitSet reachableFromUninteresting = new BitSet();
+        queue.add(node);
+        queued.set(node);
+        queue.add(uninteresting);
+        queued.set(uninteresting);
+        reachableFromUninteresting.set(uninteresting);
+        int interestingQueued = 1;
+        int count = 0;
+        while (interestingQueued > 0) {
+            int current = queue.poll();
+            boolean currentUninteresting = reachableFromUninteresting.get(current);
+            if (!currentUninteresting) {
+                interestingQueued--;
+                if (++count >= limit) {
+                    return limit;
+                }
+            }
+            for (int i = 0, parent; (parent = parent(current, i)) >= 0; i++) {
+                if (!queued.get(parent)) {
+                    queued.set(parent);
+                    queue.add(parent);
+                    if (currentUninteresting) {
+                        reachableFromUninteresting.set(parent);
+                    } else {
+                        interestingQueued++;
+                    }
+                } else if (currentUninteresting && !reachableFromUninteresting.get(parent)) {
+                    // parent has a lower generation, so it is still queued
+                    reachableFromUninteresting.set(parent);
+                    interestingQueued--;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Same as <code>git merge-base node otherNode</code>.
+     * <p>
+     * Walks by descending generation, so the first commit reachable from both nodes is not an ancestor
+     * of any other common commit.
+     *
+     * @param node      commit node
+     * @param otherNode commit node
+     * @return merge base node or -1, if nodes have no common history
+     */
+    int mergeBase(int node, int otherNode) {
+        PriorityQueue<Integer> queue = new PriorityQueue<>(
+                (queuedNode, otherQueuedNode) -> Integer.compare(generation(otherQueuedNode), generation(queuedNode)));
+        BitSet queued = new BitSet();
+        BitSet reachableFromNode = new BitSet();
+        BitSet reachableFromOtherNode = new BitSet();
+        queue.add(node);
+        queued.set(node);
+        reachableFromNode.set(node);
+        if (!queued.get(otherNode)) {
+            queue.add(otherNode);
+            queued.set(otherNode);
+        }
+        reachableFromOtherNode.set(otherNode);
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            boolean currentReachableFromNode = reachableFromNode.get(current);
+            boolean currentReachableFromOtherNode = reachableFromOtherNode.get(current);
+            if (currentReachableFromNode && currentReachableFromOtherNode) {
+                return current;
+            }
+            for (int i = 0, parent; (parent = parent(current, i)) >= 0; i++) {
+                if (currentReachableFromNode) {
+                    reachableFromNode.set(parent);
+                }
+                if (currentReachableFromOtherNode) {
+                    reachableFromOtherNode.set(parent);
+                }
+                if (!queued.get(parent)) {
+                    queued.set(parent);
+                    queue.add(parent);
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() {
+        revWalk.close();
+    }
+}
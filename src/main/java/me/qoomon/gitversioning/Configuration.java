@@ -0,0 +1,98 @@
+package me.qoomon.gitversioning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+
+/**
+ * Content of <code>.mvn/maven-git-versioning-extension.xml</code>, see {@link ConfigurationReader}.
+ * <p>
+ * Shared by the maven extension and {@link GitVersioningCli}.
+ */
+public class Configuration {
+
+    public boolean perModule = false;
+
+    public String describeTagPattern;
+
+    public List<String> branchRefPattern = new ArrayList<>();
+
+    public int commitAbbrevMinLength = GitVersioning.DEFAULT_COMMIT_ABBREV_MIN_LENGTH;
+
+    public CommitVersionDescriptionConfig commit;
+
+    public List<VersionDescriptionConfig> branch = new ArrayList<>();
+
+    public List<VersionDescriptionConfig> tag = new ArrayList<>();
+
+    /**
+     * @return commit version description
+     */
+    public VersionDescription commitVersionDescription() {
+        return commit != null
+                ? new VersionDescription(null, commit.versionFormat)
+                : new VersionDescription();
+    }
+
+    /**
+     * @return branch version descriptions
+     */
+    public List<VersionDescription> branchVersionDescriptions() {
+        return versionDescriptions(branch);
+    }
+
+    /**
+     * @return tag version descriptions
+     */
+    public List<VersionDescription> tagVersionDescriptions() {
+        return versionDescriptions(tag);
+    }
+
+    /**
+     * @return tag patterns considered by <code>${describe}</code>, explicit <code>describeTagPattern</code>
+     * or patterns of tag version descriptions, empty for all tags
+     */
+    public List<Pattern> describeTagPatterns() {
+        if (describeTagPattern != null) {
+            return singletonList(Pattern.compile(describeTagPattern));
+        }
+        // a tag version description without pattern matches all tags, same as for versioning
+        if (tag.stream().anyMatch(description -> description.pattern == null)) {
+            return emptyList();
+        }
+        return tag.stream()
+                .map(description -> Pattern.compile(description.pattern))
+                .collect(toList());
+    }
+
+    /**
+     * @return branch ref patterns to resolve the branch of a detached HEAD, in order of preference
+     */
+    public List<Pattern> branchRefPatterns() {
+        return branchRefPattern.stream()
+                .map(Pattern::compile)
+                .collect(toList());
+    }
+
+    private static List<VersionDescription> versionDescriptions(List<VersionDescriptionConfig> descriptions) {
+        return descriptions.stream()
+                .map(it -> new VersionDescription(it.pattern, it.versionFormat))
+                .collect(toList());
+    }
+
+    public static class VersionDescriptionConfig {
+
+        public String pattern;
+        public String versionFormat;
+    }
+
+    public static class CommitVersionDescriptionConfig {
+
+        public String versionFormat;
+    }
+}
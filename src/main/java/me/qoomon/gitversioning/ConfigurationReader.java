@@ -0,0 +1,180 @@
+package me.qoomon.gitversioning;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * Streaming reader of {@link Configuration} files.
+ * <p>
+ * The format consists of a handful of elements, so it is read by plain StAX instead of xml databinding,
+ * which loads several hundred classes into the extension realm on each maven start. Unknown elements are rejected.
+ * <p>
+ * Shared by the maven extension and {@link GitVersioningCli}, so both accept and validate the same configuration.
+ */
+public final class ConfigurationReader {
+
+    private ConfigurationReader() {
+    }
+
+    /**
+     * Reads and validates <code>configFile</code>.
+     *
+     * @param configFile config file
+     * @return configuration
+     * @throws IOException              if <code>configFile</code> can not be read or is invalid
+     * @throws IllegalArgumentException if a pattern or <code>commitAbbrevMinLength</code> is invalid
+     */
+    public static Configuration read(File configFile) throws IOException {
+        Configuration config;
+        try (InputStream input = Files.newInputStream(configFile.toPath())) {
+            config = read(input);
+        } catch (IOException e) {
+            throw new IOException(e.getMessage() + " - " + configFile, e);
+        }
+        validatePatterns("branch", config.branch, configFile);
+        validatePatterns("tag", config.tag, configFile);
+        if (config.describeTagPattern != null) {
+            validatePattern("describeTagPattern", config.describeTagPattern, configFile);
+        }
+        for (String branchRefPattern : config.branchRefPattern) {
+            validatePattern("branchRefPattern", branchRefPattern, configFile);
+        }
+        if (config.commitAbbrevMinLength < 4 || config.commitAbbrevMinLength > 40) {
+            throw new IllegalArgumentException("<commitAbbrevMinLength> has to be between 4 and 40 - " + configFile);
+        }
+        return config;
+    }
+
+    /**
+     * @param input config file content
+     * @return configuration
+     * @throws IOException if <code>input</code> can not be read or is invalid
+     */
+    public static Configuration read(InputStream input) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(input);
+            try {
+                return readConfiguration(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("invalid config - " + e.getMessage(), e);
+        }
+    }
+
+    private static Configuration readConfiguration(XMLStreamReader reader) throws XMLStreamException, IOException {
+        reader.nextTag();
+        if (!reader.getLocalName().equals("gitVersioning")) {
+            throw unknownElement(reader);
+        }
+        Configuration config = new Configuration();
+        while (reader.nextTag() == START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "perModule":
+                    config.perModule = readBoolean(reader);
+                    break;
+                case "describeTagPattern":
+                    config.describeTagPattern = reader.getElementText();
+                    break;
+                case "branchRefPattern":
+                    config.branchRefPattern.add(reader.getElementText());
+                    break;
+                case "commitAbbrevMinLength":
+                    config.commitAbbrevMinLength = readInt(reader);
+                    break;
+                case "commit":
+                    config.commit = readCommitVersionDescription(reader);
+                    break;
+                case "branch":
+                    config.branch.add(readVersionDescription(reader));
+                    break;
+                case "tag":
+                    config.tag.add(readVersionDescription(reader));
+                    break;
+                default:
+                    throw unknownElement(reader);
+            }
+        }
+        return config;
+    }
+
+    private static Configuration.VersionDescriptionConfig readVersionDescription(XMLStreamReader reader)
+            throws XMLStreamException, IOException {
+        Configuration.VersionDescriptionConfig description = new Configuration.VersionDescriptionConfig();
+        while (reader.nextTag() == START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "pattern":
+                    description.pattern = reader.getElementText();
+                    break;
+                case "versionFormat":
+                    description.versionFormat = reader.getElementText();
+                    break;
+                default:
+                    throw unknownElement(reader);
+            }
+        }
+        return description;
+    }
+
+    private static Configuration.CommitVersionDescriptionConfig readCommitVersionDescription(XMLStreamReader reader)
+            throws XMLStreamException, IOException {
+        Configuration.CommitVersionDescriptionConfig description = new Configuration.CommitVersionDescriptionConfig();
+        while (reader.nextTag() == START_ELEMENT) {
+            if (!reader.getLocalName().equals("versionFormat")) {
+                throw unknownElement(reader);
+            }
+            description.versionFormat = reader.getElementText();
+        }
+        return description;
+    }
+
+    private static boolean readBoolean(XMLStreamReader reader) throws XMLStreamException, IOException {
+        String value = reader.getElementText().trim();
+        if (!value.equals("true") && !value.equals("false")) {
+            throw new IOException("invalid boolean '" + value + "' at line " + reader.getLocation().getLineNumber());
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static int readInt(XMLStreamReader reader) throws XMLStreamException, IOException {
+        String value = reader.getElementText().trim();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid number '" + value + "' at line " + reader.getLocation().getLineNumber(), e);
+        }
+    }
+
+    private static void validatePatterns(String element, List<Configuration.VersionDescriptionConfig> descriptions, File configFile) {
+        for (Configuration.VersionDescriptionConfig description : descriptions) {
+            if (description.pattern != null) {
+                validatePattern(element, description.pattern, configFile);
+            }
+        }
+    }
+
+    private static void validatePattern(String element, String pattern, File configFile) {
+        try {
+            RegexGuard.compile(pattern);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("<" + element + "> " + e.getMessage() + " - " + configFile, e);
+        }
+    }
+
+    private static IOException unknownElement(XMLStreamReader reader) {
+        return new IOException("unknown element <" + reader.getLocalName() + "> at line "
+                + reader.getLocation().getLineNumber());
+    }
+}
@@ -0,0 +1,149 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.joining;
+import static org.eclipse.jgit.lib.Constants.OBJ_BLOB;
+
+/**
+ * Persisted describe results (commit, nearest tag, distance) of previous builds,
+ * stored at <code>.git/git-versioning/describe-cache</code>.
+ * <p>
+ * Cache is bound to the set of annotated tags, it is discarded as soon as a tag is added, moved or removed.
+ */
+final class DescribeCache {
+
+    static final String FILE_PATH = "git-versioning/describe-cache";
+
+    private static final int MAX_ENTRIES = 64;
+
+    private final File file;
+    private final String tagsFingerprint;
+    private final Map<ObjectId, Entry> entries = new LinkedHashMap<>();
+    private boolean modified;
+
+    private DescribeCache(File file, String tagsFingerprint) {
+        this.file = file;
+        this.tagsFingerprint = tagsFingerprint;
+    }
+
+    /**
+     * @param repository    repository
+     * @param annotatedTags annotated tags by peeled commit id
+     * @return cache of <code>repository</code>, empty if there is no cache file or tags have changed
+     */
+    static DescribeCache read(Repository repository, Map<ObjectId, List<Ref>> annotatedTags) {
+        DescribeCache cache = new DescribeCache(
+                new File(repository.getDirectory(), FILE_PATH),
+                tagsFingerprint(annotatedTags.values()));
+        if (!cache.file.isFile()) {
+            return cache;
+        }
+        try {
+            List<String> lines = Files.readAllLines(cache.file.toPath(), UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals("tags " + cache.tagsFingerprint)) {
+                return cache;
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split(" ");
+                String tag = fields.length > 2 ? fields[2] : null;
+                cache.entries.put(ObjectId.fromString(fields[0]), new Entry(tag, Integer.parseInt(fields[1])));
+            }
+        } catch (IOException | RuntimeException e) {
+            // corrupt cache file, start over
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    /**
+     * @param commitId commit id
+     * @return cached describe result of <code>commitId</code> or null, if there is none
+     */
+    Entry get(ObjectId commitId) {
+        return entries.get(commitId);
+    }
+
+    void put(ObjectId commitId, Entry entry) {
+        entries.remove(commitId);
+        entries.put(commitId.copy(), entry);
+        Iterator<ObjectId> eldest = entries.keySet().iterator();
+        while (entries.size() > MAX_ENTRIES) {
+            eldest.next();
+            eldest.remove();
+        }
+        modified = true;
+    }
+
+    /**
+     * Writes cache file, if cache has been modified. Cache is best effort, write failures are ignored.
+     */
+    void write() {
+        if (!modified) {
+            return;
+        }
+        try {
+            FileUtil.writeAtomically(file.toPath(), UTF_8, writer -> {
+                writer.write("tags " + tagsFingerprint);
+                writer.newLine();
+                for (Map.Entry<ObjectId, Entry> entry : entries.entrySet()) {
+                    writer.write(entry.getKey().name() + " " + entry.getValue().depth);
+                    if (entry.getValue().tag != null) {
+                        writer.write(" " + entry.getValue().tag);
+                    }
+                    writer.newLine();
+                }
+            });
+            modified = false;
+        } catch (IOException e) {
+            // ignore, describe will be computed from scratch next time
+        }
+    }
+
+    private static String tagsFingerprint(Collection<List<Ref>> annotatedTags) {
+        String tags = annotatedTags.stream()
+                .flatMap(List::stream)
+                .sorted(comparing(Ref::getName))
+                .map(ref -> ref.getName() + " " + ref.getObjectId().name())
+                .collect(joining("\n"));
+        return new ObjectInserter.Formatter().idFor(OBJ_BLOB, tags.getBytes(UTF_8)).name();
+    }
+
+    /**
+     * Describe result, nearest annotated tag and number of commits since that tag.
+     */
+    static final class Entry {
+
+        static final Entry NO_TAG = new Entry(null, 0);
+
+        final String tag;
+        final int depth;
+
+        Entry(String tag, int depth) {
+            this.tag = tag;
+            this.depth = depth;
+        }
+
+        /**
+         * @param commits number of commits on top of this entry's commit
+         * @return describe result of a descendant commit
+         */
+        Entry plus(int commits) {
+            return tag == null ? NO_TAG : new Entry(tag, depth + commits);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package me.qoomon.gitversioning;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+public final class FileUtil {
+
+    private FileUtil() {
+    }
+
+    /**
+     * Writes content to a temporary file next to <code>file</code> first and moves it into place afterwards,
+     * so readers never see a partially written file.
+     *
+     * @param file    file
+     * @param charset content charset
+     * @param content content writer
+     * @throws IOException IOException
+     */
+    public static void writeAtomically(Path file, Charset charset, ContentWriter content) throws IOException {
+        Path path = file.toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        Path tempPath = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempPath, charset)) {
+                content.write(writer);
+            }
+            try {
+                Files.move(tempPath, path, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+
+        void write(BufferedWriter writer) throws IOException;
+    }
+}
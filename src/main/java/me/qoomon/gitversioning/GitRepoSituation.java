@@ -13,6 +13,8 @@ public class GitRepoSituation {
     private String headBranch;
     private List<String> headTags;
     private String headDescribe;
+    private int headCommitAbbrevLength;
+    private long headCommitTime;
 
     public GitRepoSituation(){
         this(true, NO_COMMIT, null, emptyList(), null);
@@ -68,4 +70,26 @@ public class GitRepoSituation {
     public void setHeadDescribe(String headDescribe) {
         this.headDescribe = headDescribe;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return length of shortest unique prefix of head commit or 0, if unknown
+     */
+    public int getHeadCommitAbbrevLength() {
+        return headCommitAbbrevLength;
+    }
+
+    public void setHeadCommitAbbrevLength(int headCommitAbbrevLength) {
+        this.headCommitAbbrevLength = headCommitAbbrevLength;
+    }
+
+    /**
+     * @return committer time of head commit in seconds since epoch or 0, if unknown
+     */
+    public long getHeadCommitTime() {
+        return headCommitTime;
+    }
+
+    public void setHeadCommitTime(long headCommitTime) {
+        this.headCommitTime = headCommitTime;
+    }
+}
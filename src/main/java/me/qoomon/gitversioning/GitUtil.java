@@ -2,13 +2,33 @@ package me.qoomon.gitversioning;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.StatusCommand;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 
 import java.io.File;
-import java.util.List;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
+import static java.util.Comparator.comparing;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
 import static me.qoomon.UncheckedExceptions.unchecked;
 import static me.qoomon.gitversioning.GitConstants.NO_COMMIT;
@@ -16,10 +36,69 @@ import static org.eclipse.jgit.lib.Constants.*;
 
 public final class GitUtil {
 
+    private static final int DESCRIBE_MAX_CANDIDATES = 10;
+    private static final int DESCRIBE_INCREMENTAL_MAX_DEPTH = 1000;
+    private static final int DESCRIBE_ABBREV_LENGTH = 7;
+    private static final int STATUS_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
     public static Status status(Repository repository) {
         return unchecked(() -> Git.wrap(repository).status().call());
     }
 
+    /**
+     * Same as <code>status(repository).isClean()</code>.
+     * <p>
+     * Working tree state of the last clean status is persisted, see {@link StatusSnapshot}.
+     * If HEAD and index did not change since, only files and directories touched since are checked.
+     * Otherwise the whole working tree is scanned in parallel, see {@link #isWorkTreeClean(Repository, int)}.
+     *
+     * @param repository repository
+     * @return true if there are no changes, neither staged, nor unstaged, nor untracked
+     */
+    public static boolean isClean(Repository repository) {
+        StatusSnapshot snapshot = StatusSnapshot.read(repository);
+        Set<String> touchedPaths = snapshot != null ? snapshot.touchedPaths(repository) : null;
+        if (touchedPaths != null && touchedPaths.isEmpty()) {
+            return true;
+        }
+
+        long scanMillis = System.currentTimeMillis();
+        boolean clean;
+        Set<String> ignoredPaths = new HashSet<>();
+        if (touchedPaths != null) {
+            StatusCommand statusCommand = Git.wrap(repository).status();
+            touchedPaths.forEach(statusCommand::addPath);
+            Status status = unchecked(statusCommand::call);
+            clean = status.isClean();
+            ignoredPaths.addAll(snapshot.getIgnoredPaths());
+            ignoredPaths.addAll(status.getIgnoredNotInIndex());
+        } else {
+            WorkTreeScan scan = WorkTreeScan.scan(repository, STATUS_PARALLELISM);
+            clean = scan.isClean();
+            ignoredPaths.addAll(scan.getIgnoredPaths());
+        }
+
+        StatusSnapshot newSnapshot = clean ? StatusSnapshot.create(repository, ignoredPaths, scanMillis) : null;
+        if (newSnapshot != null) {
+            newSnapshot.write(repository);
+        } else {
+            StatusSnapshot.delete(repository);
+        }
+        return clean;
+    }
+
+    /**
+     * Same as <code>status(repository).isClean()</code>, but working tree is partitioned by directories,
+     * which are compared in parallel, see {@link WorkTreeScan}. Status snapshot is neither used nor updated.
+     *
+     * @param repository  repository
+     * @param parallelism number of threads
+     * @return true if there are no changes, neither staged, nor unstaged, nor untracked
+     */
+    public static boolean isWorkTreeClean(Repository repository, int parallelism) {
+        return WorkTreeScan.scan(repository, parallelism).isClean();
+    }
+
     public static String branch(Repository repository) {
         ObjectId head = unchecked(() -> repository.resolve(HEAD));
         if (head == null) {
@@ -51,23 +130,711 @@ public final class GitUtil {
         return rev.getName();
     }
 
+    /**
+     * Same as <code>git rev-parse --short=minLength</code>, see {@link ObjectAbbreviation}.
+     *
+     * @param repository repository
+     * @param id         object id
+     * @param minLength  minimum prefix length
+     * @return shortest unique prefix of <code>id</code>, at least <code>minLength</code> characters
+     */
+    public static String abbreviate(Repository repository, ObjectId id, int minLength) {
+        try (ObjectAbbreviation abbreviation = ObjectAbbreviation.open(repository)) {
+            return abbreviate(abbreviation, id, minLength);
+        }
+    }
+
+    private static String abbreviate(ObjectAbbreviation abbreviation, ObjectId id, int minLength) {
+        int length = Math.max(minLength, abbreviation.uniqueLength(id));
+        return id.name().substring(0, Math.min(length, OBJECT_ID_STRING_LENGTH));
+    }
+
+    /**
+     * Same as <code>git describe</code>, considers annotated tags only.
+     * <p>
+     * If the repository has a commit-graph file, history is walked on the commit-graph instead of parsing commit objects.
+     * Results are cached within the git directory, describe of a descendant of a cached commit
+     * walks the new commits only.
+     *
+     * @param repository repository
+     * @return describe output of HEAD or null, if there is no HEAD commit or no tag is reachable
+     */
     public static String describe(Repository repository) {
-        return unchecked(() -> Git.wrap(repository).describe().call());
+        return describe(repository, emptyList());
+    }
+
+    /**
+     * Same as {@link #describe(Repository)}, but considers annotated tags matching any of <code>tagPatterns</code> only.
+     * Tag names are matched before tags are peeled, so non-matching tags do not cost any object lookup.
+     *
+     * @param repository  repository
+     * @param tagPatterns full match patterns of tag names, empty for all tags
+     * @return describe output of HEAD or null, if there is no HEAD commit or no matching tag is reachable
+     */
+    public static String describe(Repository repository, Collection<Pattern> tagPatterns) {
+        try (ObjectAbbreviation abbreviation = ObjectAbbreviation.open(repository)) {
+            return describe(repository, tagPatterns, abbreviation);
+        }
+    }
+
+    private static String describe(Repository repository, Collection<Pattern> tagPatterns,
+                                   ObjectAbbreviation abbreviation) {
+        ObjectId head = unchecked(() -> repository.resolve(HEAD));
+        if (head == null) {
+            return null;
+        }
+        Map<ObjectId, List<Ref>> annotatedTags = annotatedTags(repository, tagPatterns);
+        if (annotatedTags.containsKey(head)) {
+            // exact match, no history walk needed
+            return tagName(latestTag(repository, annotatedTags.get(head)));
+        }
+
+        DescribeCache cache = DescribeCache.read(repository, annotatedTags);
+        String describe = describeCommit(repository, head, annotatedTags, cache, abbreviation);
+        cache.write();
+        return describe;
+    }
+
+    /**
+     * Describe output of <code>commit</code>, new results are added to <code>cache</code>, but not written.
+     */
+    private static String describeCommit(Repository repository, ObjectId commit,
+                                         Map<ObjectId, List<Ref>> annotatedTags, DescribeCache cache,
+                                         ObjectAbbreviation abbreviation) {
+        if (annotatedTags.containsKey(commit)) {
+            return tagName(latestTag(repository, annotatedTags.get(commit)));
+        }
+        DescribeCache.Entry describe = cache.get(commit);
+        if (describe == null) {
+            describe = describeIncremental(repository, commit, annotatedTags, cache);
+            if (describe == null) {
+                CommitGraph commitGraph = CommitGraph.read(repository);
+                // tags are peeled already, JGit describe would peel all tags again
+                describe = commitGraph != null
+                        ? describe(repository, commit, annotatedTags, commitGraph)
+                        : describe(repository, commit, annotatedTags);
+            }
+            cache.put(commit, describe);
+        }
+        if (describe.tag == null) {
+            return null;
+        }
+        return describe.tag + "-" + describe.depth + "-g" + abbreviate(abbreviation, commit, DESCRIBE_ABBREV_LENGTH);
+    }
+
+    private static Map<ObjectId, List<Ref>> annotatedTags(Repository repository, Collection<Pattern> tagPatterns) {
+        return unchecked(() -> repository.getRefDatabase().getRefsByPrefix(R_TAGS)).stream()
+                .filter(ref -> tagPatterns.isEmpty() || tagPatterns.stream()
+                        .anyMatch(tagPattern -> RegexGuard.matches(tagPattern, tagName(ref))))
+                .map(ref -> unchecked(() -> repository.getRefDatabase().peel(ref)))
+                .filter(ref -> ref.getPeeledObjectId() != null)
+                .collect(groupingBy(Ref::getPeeledObjectId));
+    }
+
+    /**
+     * Walks first parents of <code>head</code> up to a tagged or cached commit.
+     * Distances are only additive along a linear history, so the walk gives up at merge commits.
+     *
+     * @return describe result of <code>head</code> or null, if it can not be derived incrementally
+     */
+    private static DescribeCache.Entry describeIncremental(Repository repository, ObjectId head,
+                                                           Map<ObjectId, List<Ref>> annotatedTags,
+                                                           DescribeCache cache) {
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            revWalk.setRetainBody(false);
+            RevCommit commit = unchecked(() -> revWalk.parseCommit(head));
+            for (int depth = 1; depth <= DESCRIBE_INCREMENTAL_MAX_DEPTH; depth++) {
+                if (commit.getParentCount() == 0) {
+                    return DescribeCache.Entry.NO_TAG;
+                }
+                if (commit.getParentCount() > 1) {
+                    return null;
+                }
+                RevCommit parent = commit.getParent(0);
+                List<Ref> tags = annotatedTags.get(parent);
+                if (tags != null) {
+                    return new DescribeCache.Entry(tagName(latestTag(repository, tags)), depth);
+                }
+                DescribeCache.Entry cached = cache.get(parent);
+                if (cached != null) {
+                    return cached.plus(depth);
+                }
+                unchecked(() -> revWalk.parseHeaders(parent));
+                commit = parent;
+            }
+            return null;
+        }
+    }
+
+    private static DescribeCache.Entry describe(Repository repository, ObjectId head,
+                                                Map<ObjectId, List<Ref>> annotatedTags, CommitGraph commitGraph) {
+        try (CommitGraphWalk walk = new CommitGraphWalk(repository, commitGraph)) {
+            Map<Integer, List<Ref>> taggedNodes = new HashMap<>();
+            annotatedTags.forEach((commitId, tags) -> {
+                try {
+                    taggedNodes.put(walk.node(commitId), tags);
+                } catch (Exception e) {
+                    // tag does not point to a commit
+                }
+            });
+
+            // walk history by commit time, a tagged commit reachable from a previous candidate is no candidate
+            int headNode = walk.node(head);
+            List<Integer> candidates = new ArrayList<>();
+            PriorityQueue<Integer> queue = new PriorityQueue<>(
+                    (node, otherNode) -> Long.compare(walk.commitTime(otherNode), walk.commitTime(node)));
+            BitSet seen = new BitSet();
+            BitSet dominated = new BitSet();
+            queue.add(headNode);
+            seen.set(headNode);
+            while (!queue.isEmpty() && candidates.size() < DESCRIBE_MAX_CANDIDATES) {
+                int node = queue.poll();
+                boolean nodeDominated = dominated.get(node);
+                if (!nodeDominated && taggedNodes.containsKey(node)) {
+                    candidates.add(node);
+                    nodeDominated = true;
+                }
+                for (int i = 0, parent; (parent = walk.parent(node, i)) >= 0; i++) {
+                    if (nodeDominated) {
+                        dominated.set(parent);
+                    }
+                    if (!seen.get(parent)) {
+                        seen.set(parent);
+                        queue.add(parent);
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                return DescribeCache.Entry.NO_TAG;
+            }
+
+            // depth is the number of commits reachable from HEAD, but not from candidate
+            int bestCandidate = -1;
+            int bestDepth = Integer.MAX_VALUE;
+            for (int candidate : candidates) {
+                int depth = walk.count(headNode, candidate, bestDepth);
+                if (depth < bestDepth) {
+                    bestCandidate = candidate;
+                    bestDepth = depth;
+                }
+            }
+
+            return new DescribeCache.Entry(tagName(latestTag(repository, taggedNodes.get(bestCandidate))), bestDepth);
+        }
+    }
+
+    /**
+     * Same algorithm as {@link #describe(Repository, ObjectId, Map, CommitGraph)}, but walks commit objects.
+     */
+    private static DescribeCache.Entry describe(Repository repository, ObjectId head,
+                                                Map<ObjectId, List<Ref>> annotatedTags) {
+        // walk history by commit time, a tagged commit reachable from a previous candidate is no candidate
+        List<RevCommit> candidates = new ArrayList<>();
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            revWalk.setRetainBody(false);
+            revWalk.sort(RevSort.COMMIT_TIME_DESC);
+            RevFlag dominated = revWalk.newFlag("dominated");
+            unchecked(() -> revWalk.markStart(revWalk.parseCommit(head)));
+            for (RevCommit commit : revWalk) {
+                boolean commitDominated = commit.has(dominated);
+                if (!commitDominated && annotatedTags.containsKey(commit)) {
+                    candidates.add(commit);
+                    if (candidates.size() == DESCRIBE_MAX_CANDIDATES) {
+                        break;
+                    }
+                    commitDominated = true;
+                }
+                if (commitDominated) {
+                    for (RevCommit parent : commit.getParents()) {
+                        parent.add(dominated);
+                    }
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return DescribeCache.Entry.NO_TAG;
+        }
+
+        // depth is the number of commits reachable from HEAD, but not from candidate
+        RevCommit bestCandidate = null;
+        int bestDepth = Integer.MAX_VALUE;
+        for (RevCommit candidate : candidates) {
+            int depth = 0;
+            try (RevWalk revWalk = new RevWalk(repository)) {
+                revWalk.setRetainBody(false);
+                unchecked(() -> revWalk.markStart(revWalk.parseCommit(head)));
+                unchecked(() -> revWalk.markUninteresting(revWalk.parseCommit(candidate)));
+                for (RevCommit ignored : revWalk) {
+                    if (++depth >= bestDepth) {
+                        break;
+                    }
+                }
+            }
+            if (depth < bestDepth) {
+                bestCandidate = candidate;
+                bestDepth = depth;
+            }
+        }
+
+        return new DescribeCache.Entry(tagName(latestTag(repository, annotatedTags.get(bestCandidate))), bestDepth);
+    }
+
+    private static String tagName(Ref tag) {
+        return tag.getName().substring(R_TAGS.length());
+    }
+
+    private static Ref latestTag(Repository repository, List<Ref> tags) {
+        if (tags.size() == 1) {
+            return tags.get(0);
+        }
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            return tags.stream()
+                    .max(comparing((Ref tag) -> taggerTime(revWalk, tag)).thenComparing(Ref::getName))
+                    .get();
+        }
+    }
+
+    /**
+     * @return tagger time of annotated <code>tag</code>, tags without tagger e.g. created by importers are the oldest
+     */
+    private static long taggerTime(RevWalk revWalk, Ref tag) {
+        PersonIdent tagger = unchecked(() -> revWalk.parseTag(tag.getObjectId())).getTaggerIdent();
+        return tagger != null ? tagger.getWhen().getTime() : Long.MIN_VALUE;
+    }
+
+    /**
+     * Determines the last commit, that changed files of each directory, by a single history walk from HEAD.
+     * <p>
+     * Every commit is compared to its first parent, changed files are assigned to the innermost directory containing them.
+     * Only directories with files in HEAD tree are considered, so the walk stops as soon as all of them have been
+     * assigned a commit.
+     *
+     * @param repository  repository
+     * @param directories work tree relative directory paths separated by <code>/</code>, empty path for work tree root
+     * @return last commit by directory, directories without files in HEAD tree are missing
+     */
+    public static Map<String, ObjectId> lastCommits(Repository repository, Collection<String> directories) {
+        Map<String, ObjectId> lastCommits = new HashMap<>();
+        lastRevCommits(repository, directories).forEach((directory, commit) -> lastCommits.put(directory, commit.copy()));
+        return lastCommits;
+    }
+
+    /**
+     * Same as {@link #lastCommits(Repository, Collection)}, but keeps parsed commit headers e.g. commit time.
+     * <p>
+     * If the repository has a commit-graph file, history is walked on the commit-graph and root trees are taken from it,
+     * so only the commits found are parsed.
+     */
+    private static Map<String, RevCommit> lastRevCommits(Repository repository, Collection<String> directories) {
+        ObjectId head = unchecked(() -> repository.resolve(HEAD));
+        Map<String, RevCommit> lastCommits = new HashMap<>();
+        if (head == null || directories.isEmpty()) {
+            return lastCommits;
+        }
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            revWalk.setRetainBody(false);
+            Set<String> directorySet = new HashSet<>(directories);
+            // directories without files would never be assigned a commit and let the walk run to the root commits
+            Set<String> populatedDirectories = populatedDirectories(treeWalk,
+                    unchecked(() -> revWalk.parseCommit(head)).getTree(), directorySet);
+            if (populatedDirectories.isEmpty()) {
+                return lastCommits;
+            }
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(TreeFilter.ANY_DIFF); // skips unchanged sub trees without reading them
+            CommitGraph commitGraph = CommitGraph.read(repository);
+            if (commitGraph != null) {
+                lastCommitIds(repository, head, directorySet, populatedDirectories, commitGraph, treeWalk).forEach((directory, commitId) ->
+                        lastCommits.put(directory, unchecked(() -> revWalk.parseCommit(commitId))));
+                return lastCommits;
+            }
+
+            unchecked(() -> revWalk.markStart(revWalk.parseCommit(head)));
+            for (RevCommit commit : revWalk) {
+                ObjectId parentTree = commit.getParentCount() > 0
+                        ? unchecked(() -> revWalk.parseCommit(commit.getParent(0))).getTree()
+                        : null;
+                for (String directory : diffDirectories(treeWalk, parentTree, commit.getTree(), directorySet)) {
+                    if (populatedDirectories.contains(directory)) {
+                        lastCommits.putIfAbsent(directory, commit);
+                    }
+                }
+                if (lastCommits.size() == populatedDirectories.size()) {
+                    break;
+                }
+            }
+        }
+        return lastCommits;
+    }
+
+    /**
+     * Same as {@link #lastRevCommits(Repository, Collection)}, but walks the commit-graph by commit time.
+     */
+    private static Map<String, ObjectId> lastCommitIds(Repository repository, ObjectId head, Set<String> directories,
+                                                       Set<String> populatedDirectories,
+                                                       CommitGraph commitGraph, TreeWalk treeWalk) {
+        Map<String, ObjectId> lastCommits = new HashMap<>();
+        try (CommitGraphWalk walk = new CommitGraphWalk(repository, commitGraph)) {
+            PriorityQueue<Integer> queue = new PriorityQueue<>(
+                    (node, otherNode) -> Long.compare(walk.commitTime(otherNode), walk.commitTime(node)));
+            BitSet seen = new BitSet();
+            int headNode = walk.node(head);
+            queue.add(headNode);
+            seen.set(headNode);
+            while (!queue.isEmpty() && lastCommits.size() < populatedDirectories.size()) {
+                int node = queue.poll();
+                int firstParent = walk.parent(node, 0);
+                ObjectId parentTree = firstParent >= 0 ? walk.treeId(firstParent) : null;
+                for (String directory : diffDirectories(treeWalk, parentTree, walk.treeId(node), directories)) {
+                    if (populatedDirectories.contains(directory)) {
+                        lastCommits.computeIfAbsent(directory, it -> walk.objectId(node));
+                    }
+                }
+                for (int i = 0, parent; (parent = walk.parent(node, i)) >= 0; i++) {
+                    if (!seen.get(parent)) {
+                        seen.set(parent);
+                        queue.add(parent);
+                    }
+                }
+            }
+        }
+        return lastCommits;
+    }
+
+    /**
+     * Enters only sub trees that may contain files of a directory without files found so far.
+     *
+     * @return directories with files in <code>tree</code>, files are assigned to the innermost directory containing them
+     */
+    private static Set<String> populatedDirectories(TreeWalk treeWalk, ObjectId tree, Set<String> directories) {
+        Set<String> populatedDirectories = new HashSet<>();
+        Set<String> remainingDirectories = new HashSet<>(directories);
+        treeWalk.reset();
+        treeWalk.setRecursive(false);
+        treeWalk.setFilter(TreeFilter.ALL);
+        unchecked(() -> treeWalk.addTree(tree));
+        while (!remainingDirectories.isEmpty() && unchecked(treeWalk::next)) {
+            String path = treeWalk.getPathString();
+            if (treeWalk.isSubtree()) {
+                String owner = directories.contains(path) ? path : innermostDirectory(path, directories);
+                if (remainingDirectories.contains(owner)
+                        || remainingDirectories.stream().anyMatch(directory -> directory.startsWith(path + "/"))) {
+                    unchecked(treeWalk::enterSubtree);
+                }
+            } else {
+                String directory = innermostDirectory(path, directories);
+                if (directory != null && remainingDirectories.remove(directory)) {
+                    populatedDirectories.add(directory);
+                }
+            }
+        }
+        return populatedDirectories;
+    }
+
+    /**
+     * @param parentTree parent root tree or null, if there is no parent
+     * @return directories with changed files between <code>parentTree</code> and <code>tree</code>
+     */
+    private static Set<String> diffDirectories(TreeWalk treeWalk, ObjectId parentTree, ObjectId tree,
+                                               Set<String> directories) {
+        Set<String> changedDirectories = new HashSet<>();
+        treeWalk.reset();
+        if (parentTree != null) {
+            unchecked(() -> treeWalk.addTree(parentTree));
+        } else {
+            treeWalk.addTree(new EmptyTreeIterator());
+        }
+        unchecked(() -> treeWalk.addTree(tree));
+        while (unchecked(treeWalk::next)) {
+            String directory = innermostDirectory(treeWalk.getPathString(), directories);
+            if (directory != null && changedDirectories.add(directory) && changedDirectories.size() == directories.size()) {
+                break;
+            }
+        }
+        return changedDirectories;
+    }
+
+    private static String innermostDirectory(String path, Set<String> directories) {
+        String directory = path;
+        while (!directory.isEmpty()) {
+            int separatorIndex = directory.lastIndexOf('/');
+            directory = separatorIndex >= 0 ? directory.substring(0, separatorIndex) : "";
+            if (directories.contains(directory)) {
+                return directory;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Situation of each module directory, based on the last commit that changed files of the module directory,
+     * see {@link #lastCommits(Repository, Collection)}.
+     * <p>
+     * Module situations share clean state and branch of <code>headSituation</code>,
+     * tags and describe refer to the last commit of the module.
+     * Modules changed by HEAD commit and modules without any commit get <code>headSituation</code> itself.
+     *
+     * @param directory           directory within the repository
+     * @param headSituation       situation of HEAD
+     * @param moduleDirectories   module directories
+     * @param describeTagPatterns full match patterns of tag names considered by describe, empty for all tags
+     * @param timings             timings
+     * @return situation by module directory
+     */
+    public static Map<File, GitRepoSituation> moduleSituations(File directory, GitRepoSituation headSituation,
+                                                               Collection<File> moduleDirectories,
+                                                               Collection<Pattern> describeTagPatterns, Timings timings) {
+        FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().findGitDir(directory);
+        if (repositoryBuilder.getGitDir() == null) {
+            throw new IllegalArgumentException(
+                    directory + " directory is not a git repository (or any of the parent directories)");
+        }
+        File gitDir = repositoryBuilder.getGitDir();
+        try (Repository repository = step("git.open", gitDir, timings, () -> unchecked(repositoryBuilder::build));
+             ObjectAbbreviation abbreviation = step("git.packIndexes", gitDir, timings,
+                     () -> ObjectAbbreviation.open(repository))) {
+            Map<String, File> modulePaths = modulePaths(repository, moduleDirectories);
+
+            Map<String, RevCommit> lastCommits = step("git.moduleCommits", gitDir, timings,
+                    () -> lastRevCommits(repository, modulePaths.keySet()));
+            Map<ObjectId, List<String>> tags = step("git.moduleTags", gitDir, timings, () -> tagsByCommit(repository));
+
+            Map<String, RevCommit> moduleCommits = new HashMap<>();
+            lastCommits.forEach((modulePath, lastCommit) -> {
+                if (!lastCommit.name().equals(headSituation.getHeadCommit())) {
+                    moduleCommits.put(modulePath, lastCommit);
+                }
+            });
+            Map<ObjectId, String> describes = moduleCommits.isEmpty() ? emptyMap()
+                    : step("git.moduleDescribe", gitDir, timings,
+                    () -> describeCommits(repository, moduleCommits.values(), describeTagPatterns, abbreviation));
+
+            Map<File, GitRepoSituation> moduleSituations = new HashMap<>();
+            for (File moduleDirectory : moduleDirectories) {
+                moduleSituations.put(moduleDirectory, headSituation);
+            }
+            moduleCommits.forEach((modulePath, lastCommit) -> {
+                GitRepoSituation moduleSituation = new GitRepoSituation(
+                        headSituation.isClean(),
+                        lastCommit.name(),
+                        headSituation.getHeadBranch(),
+                        tags.getOrDefault(lastCommit, emptyList()),
+                        describes.get(lastCommit));
+                moduleSituation.setHeadCommitAbbrevLength(abbreviation.uniqueLength(lastCommit));
+                moduleSituation.setHeadCommitTime(lastCommit.getCommitTime());
+                moduleSituations.put(modulePaths.get(modulePath), moduleSituation);
+            });
+            return moduleSituations;
+        }
+    }
+
+    /**
+     * @return describe output by commit, see {@link #describe(Repository, Collection)}
+     */
+    private static Map<ObjectId, String> describeCommits(Repository repository, Collection<? extends ObjectId> commits,
+                                                         Collection<Pattern> tagPatterns,
+                                                         ObjectAbbreviation abbreviation) {
+        Map<ObjectId, List<Ref>> annotatedTags = annotatedTags(repository, tagPatterns);
+        DescribeCache cache = DescribeCache.read(repository, annotatedTags);
+        Map<ObjectId, String> describes = new HashMap<>();
+        for (ObjectId commit : commits) {
+            if (!describes.containsKey(commit)) {
+                describes.put(commit.copy(), describeCommit(repository, commit, annotatedTags, cache, abbreviation));
+            }
+        }
+        cache.write();
+        return describes;
+    }
+
+    /**
+     * Determines directories with changed files between the merge base of <code>baseRev</code> and HEAD, and HEAD,
+     * like <code>git diff baseRev...HEAD</code>. Changed files are assigned to the innermost directory containing them.
+     * <p>
+     * Only committed changes are considered.
+     *
+     * @param repository  repository
+     * @param baseRev     base revision e.g. a release tag, a branch or a commit hash
+     * @param directories work tree relative directory paths separated by <code>/</code>, empty path for work tree root
+     * @return changed directories, all directories if HEAD and <code>baseRev</code> have no common history
+     */
+    public static Set<String> changedDirectories(Repository repository, String baseRev, Collection<String> directories) {
+        ObjectId head = unchecked(() -> repository.resolve(HEAD));
+        ObjectId base = unchecked(() -> repository.resolve(baseRev + "^{commit}"));
+        if (base == null) {
+            throw new IllegalArgumentException("unknown revision '" + baseRev + "'");
+        }
+        Set<String> directorySet = new HashSet<>(directories);
+        if (head == null) {
+            return new HashSet<>();
+        }
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            ObjectId mergeBaseTree;
+            CommitGraph commitGraph = CommitGraph.read(repository);
+            if (commitGraph != null) {
+                try (CommitGraphWalk walk = new CommitGraphWalk(repository, commitGraph)) {
+                    int mergeBase = walk.mergeBase(walk.node(head), walk.node(base));
+                    mergeBaseTree = mergeBase >= 0 ? walk.treeId(mergeBase) : null;
+                }
+            } else {
+                revWalk.setRevFilter(RevFilter.MERGE_BASE);
+                unchecked(() -> revWalk.markStart(revWalk.parseCommit(head)));
+                unchecked(() -> revWalk.markStart(revWalk.parseCommit(base)));
+                RevCommit mergeBase = unchecked(revWalk::next);
+                mergeBaseTree = mergeBase != null ? mergeBase.getTree() : null;
+            }
+            if (mergeBaseTree == null) {
+                return directorySet;
+            }
+
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(TreeFilter.ANY_DIFF); // skips unchanged sub trees without reading them
+            RevCommit headCommit = unchecked(() -> revWalk.parseCommit(head));
+            return diffDirectories(treeWalk, mergeBaseTree, headCommit.getTree(), directorySet);
+        }
+    }
+
+    /**
+     * Module directories with changed files since <code>baseRev</code>, see {@link #changedDirectories(Repository, String, Collection)}.
+     *
+     * @param directory         directory within the repository
+     * @param baseRev           base revision e.g. a release tag, a branch or a commit hash
+     * @param moduleDirectories module directories
+     * @param timings           timings
+     * @return changed module directories
+     */
+    public static Set<File> changedModules(File directory, String baseRev, Collection<File> moduleDirectories, Timings timings) {
+        FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().findGitDir(directory);
+        if (repositoryBuilder.getGitDir() == null) {
+            throw new IllegalArgumentException(
+                    directory + " directory is not a git repository (or any of the parent directories)");
+        }
+        File gitDir = repositoryBuilder.getGitDir();
+        try (Repository repository = step("git.open", gitDir, timings, () -> unchecked(repositoryBuilder::build));
+             ObjectAbbreviation abbreviation = step("git.packIndexes", gitDir, timings,
+                     () -> ObjectAbbreviation.open(repository))) {
+            Map<String, File> modulePaths = modulePaths(repository, moduleDirectories);
+            Set<String> changedDirectories = step("git.changedModules", gitDir, timings,
+                    () -> changedDirectories(repository, baseRev, modulePaths.keySet()));
+            return changedDirectories.stream()
+                    .map(modulePaths::get)
+                    .collect(toCollection(LinkedHashSet::new));
+        }
+    }
+
+    /**
+     * @return module directories by work tree relative path, directories outside of the work tree are ignored
+     */
+    private static Map<String, File> modulePaths(Repository repository, Collection<File> moduleDirectories) {
+        Path workTree = unchecked(() -> repository.getWorkTree().getCanonicalFile().toPath());
+        Map<String, File> modulePaths = new HashMap<>();
+        for (File moduleDirectory : moduleDirectories) {
+            Path modulePath = workTree.relativize(unchecked(() -> moduleDirectory.getCanonicalFile().toPath()));
+            if (!modulePath.startsWith("..")) {
+                modulePaths.put(modulePath.toString().replace(File.separatorChar, '/'), moduleDirectory);
+            }
+        }
+        return modulePaths;
+    }
+
+    private static Map<ObjectId, List<String>> tagsByCommit(Repository repository) {
+        return unchecked(() -> repository.getRefDatabase().getRefsByPrefix(R_TAGS)).stream()
+                .map(ref -> unchecked(() -> repository.getRefDatabase().peel(ref)))
+                .collect(groupingBy(
+                        ref -> ref.getPeeledObjectId() != null ? ref.getPeeledObjectId() : ref.getObjectId(),
+                        mapping(ref -> ref.getName().substring(R_TAGS.length()), toList())));
+    }
+
+    /**
+     * @param directory directory
+     * @return true if <code>directory</code> or any of its parent directories is a git repository
+     */
+    public static boolean isRepository(File directory) {
+        return new FileRepositoryBuilder().findGitDir(directory).getGitDir() != null;
     }
 
     public static GitRepoSituation situation(File directory) {
+        return situation(directory, new Timings());
+    }
+
+    public static GitRepoSituation situation(File directory, Timings timings) {
+        return situation(directory, timings, emptyList());
+    }
+
+    /**
+     * @param directory           directory within working tree
+     * @param timings             timings of git operations
+     * @param describeTagPatterns full match patterns of tag names considered by describe, empty for all tags
+     * @return repository situation of HEAD
+     */
+    public static GitRepoSituation situation(File directory, Timings timings, Collection<Pattern> describeTagPatterns) {
+        return situation(directory, timings, describeTagPatterns, emptyList());
+    }
+
+    /**
+     * @param directory           directory within working tree
+     * @param timings             timings of git operations
+     * @param describeTagPatterns full match patterns of tag names considered by describe, empty for all tags
+     * @param branchRefPatterns   full match patterns of branch ref names in order of preference,
+     *                            to resolve the branch of a detached HEAD, see {@link BranchRefIndex}, empty for none
+     * @return repository situation of HEAD
+     */
+    public static GitRepoSituation situation(File directory, Timings timings, Collection<Pattern> describeTagPatterns,
+                                             List<Pattern> branchRefPatterns) {
         FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().findGitDir(directory);
         if (repositoryBuilder.getGitDir() == null) {
             throw new IllegalArgumentException(
                     directory + " directory is not a git repository (or any of the parent directories)");
         }
-        try (Repository repository = unchecked(repositoryBuilder::build)) {
-            boolean headClean = GitUtil.status(repository).isClean();
-            String headCommit = GitUtil.revParse(repository, HEAD);
-            String headBranch = GitUtil.branch(repository);
-            List<String> headTags = GitUtil.tag_pointsAt(repository, HEAD);
-            String headDescribe = GitUtil.describe(repository);
-            return new GitRepoSituation(headClean, headCommit, headBranch, headTags, headDescribe);
+        File gitDir = repositoryBuilder.getGitDir();
+        try (Repository repository = step("git.open", gitDir, timings, () -> unchecked(repositoryBuilder::build));
+             ObjectAbbreviation abbreviation = step("git.packIndexes", gitDir, timings,
+                     () -> ObjectAbbreviation.open(repository));
+             RevWalk revWalk = new RevWalk(repository)) {
+            revWalk.setRetainBody(false);
+            boolean headClean = step("git.status", gitDir, timings, () -> GitUtil.isClean(repository));
+            RevCommit head = step("git.revParse", gitDir, timings, () -> headCommit(repository, revWalk));
+            String headCommit = head != null ? head.getName() : NO_COMMIT;
+            String headBranch = step("git.branch", gitDir, timings, () -> GitUtil.branch(repository));
+            if (headBranch == null && head != null && !branchRefPatterns.isEmpty()) {
+                headBranch = step("git.branchRefs", gitDir, timings, () -> BranchRefIndex.read(repository)
+                        .branch(head, branchRefPatterns));
+            }
+            List<String> headTags;
+            try (JfrEvents.Span span = JfrEvents.begin("git.tags", gitDir)) {
+                headTags = timings.measure("git.tags", () -> GitUtil.tag_pointsAt(repository, HEAD));
+                span.tagCount(headTags.size());
+            }
+            String headDescribe = step("git.describe", gitDir, timings,
+                    () -> GitUtil.describe(repository, describeTagPatterns, abbreviation));
+            GitRepoSituation situation = new GitRepoSituation(headClean, headCommit, headBranch, headTags, headDescribe);
+            if (head != null) {
+                situation.setHeadCommitAbbrevLength(step("git.abbrev", gitDir, timings,
+                        () -> abbreviation.uniqueLength(head)));
+                // commit headers have already been parsed by rev parse
+                situation.setHeadCommitTime(head.getCommitTime());
+            }
+            return situation;
+        }
+    }
+
+    /**
+     * Resolves and parses the HEAD commit once, so its id and committer time are available without further reads.
+     *
+     * @return HEAD commit or null, if there is no commit yet
+     */
+    private static RevCommit headCommit(Repository repository, RevWalk revWalk) {
+        ObjectId head = unchecked(() -> repository.resolve(HEAD));
+        if (head == null) {
+            return null;
+        }
+        return unchecked(() -> revWalk.parseCommit(head));
+    }
+
+    private static <T> T step(String phase, File gitDir, Timings timings, Supplier<T> action) {
+        try (JfrEvents.Span ignored = JfrEvents.begin(phase, gitDir)) {
+            return timings.measure(phase, action);
         }
     }
 }
\ No newline at end of file
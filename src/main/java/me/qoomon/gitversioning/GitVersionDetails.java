@@ -10,18 +10,29 @@ public class GitVersionDetails {
     private final String commitRefName;
     private final Map<String,String> metaData;
     private final String version;
+    private final long commitTime;
 
     public GitVersionDetails(final boolean clean,
                              final String commit,
                              final String commitRefType, final String commitRefName,
                              final Map<String, String> metaData,
                              final String version) {
+        this(clean, commit, commitRefType, commitRefName, metaData, version, 0);
+    }
+
+    public GitVersionDetails(final boolean clean,
+                             final String commit,
+                             final String commitRefType, final String commitRefName,
+                             final Map<String, String> metaData,
+                             final String version,
+                             final long commitTime) {
         this.clean = clean;
         this.metaData = metaData;
         this.version = version;
         this.commit = commit;
         this.commitRefType = commitRefType;
         this.commitRefName = commitRefName;
+        this.commitTime = commitTime;
     }
 
     public boolean isClean() {
@@ -32,6 +43,13 @@ public class GitVersionDetails {
         return commit;
     }
 
+    /**
+     * @return committer time of commit in seconds since epoch or 0, if unknown
+     */
+    public long getCommitTime() {
+        return commitTime;
+    }
+
     public String getCommitRefType() {
         return commitRefType;
     }
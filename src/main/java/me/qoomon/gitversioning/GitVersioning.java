@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
@@ -15,6 +16,11 @@ import static me.qoomon.gitversioning.StringUtil.valueGroupMap;
 
 public final class GitVersioning {
 
+    /**
+     * Default minimum length of <code>${commit.abbrev}</code>, same as git.
+     */
+    public static final int DEFAULT_COMMIT_ABBREV_MIN_LENGTH = 7;
+
     private GitVersioning() {
     }
 
@@ -25,44 +31,82 @@ public final class GitVersioning {
             final List<VersionDescription> branchVersionDescriptions,
             final List<VersionDescription> tagVersionDescriptions,
             final String currentVersion) {
+        return determineVersion(repoSituation, commitVersionDescription,
+                branchVersionDescriptions, tagVersionDescriptions, currentVersion, DEFAULT_COMMIT_ABBREV_MIN_LENGTH);
+    }
+
+    /**
+     * @param commitAbbrevMinLength minimum length of <code>${commit.abbrev}</code>,
+     *                              longer if required to be unique within the repository
+     */
+    @Nonnull
+    public static GitVersionDetails determineVersion(
+            final GitRepoSituation repoSituation,
+            final VersionDescription commitVersionDescription,
+            final List<VersionDescription> branchVersionDescriptions,
+            final List<VersionDescription> tagVersionDescriptions,
+            final String currentVersion,
+            final int commitAbbrevMinLength) {
 
         requireNonNull(repoSituation);
         requireNonNull(commitVersionDescription);
         requireNonNull(branchVersionDescriptions);
         requireNonNull(tagVersionDescriptions);
 
+        try (JfrEvents.Span span = JfrEvents.begin("versioning.determineVersion", null)) {
+            span.ruleCount(branchVersionDescriptions.size() + tagVersionDescriptions.size() + 1);
+            span.tagCount(repoSituation.getHeadTags().size());
+            return determineVersionDetails(repoSituation, commitVersionDescription,
+                    branchVersionDescriptions, tagVersionDescriptions, currentVersion, commitAbbrevMinLength);
+        }
+    }
+
+    private static GitVersionDetails determineVersionDetails(
+            final GitRepoSituation repoSituation,
+            final VersionDescription commitVersionDescription,
+            final List<VersionDescription> branchVersionDescriptions,
+            final List<VersionDescription> tagVersionDescriptions,
+            final String currentVersion,
+            final int commitAbbrevMinLength) {
+
         // default versioning
         String gitRefType = "commit";
         String gitRefName = repoSituation.getHeadCommit();
         VersionDescription versionDescription = commitVersionDescription;
+        Pattern versionPattern = commitVersionDescription.compiledPattern();
 
+        // user supplied patterns are evaluated bounded, see RegexGuard
         if (repoSituation.getHeadBranch() != null) {
             // branch versioning
             for (final VersionDescription branchVersionDescription : branchVersionDescriptions) {
+                Pattern branchPattern = branchVersionDescription.compiledPattern();
                 Optional<String> versionBranch = Optional.of(repoSituation.getHeadBranch())
-                        .filter(branch -> branch.matches(branchVersionDescription.getPattern()));
+                        .filter(branch -> RegexGuard.matches(branchPattern, branch));
                 if (versionBranch.isPresent()) {
                     gitRefType = "branch";
                     gitRefName = versionBranch.get();
                     versionDescription = branchVersionDescription;
+                    versionPattern = branchPattern;
                     break;
                 }
             }
         } else if (!repoSituation.getHeadTags().isEmpty()) {
             // tag versioning
             for (final VersionDescription tagVersionDescription : tagVersionDescriptions) {
+                Pattern tagPattern = tagVersionDescription.compiledPattern();
                 Optional<String> versionTag = repoSituation.getHeadTags().stream()
-                        .filter(tag -> tag.matches(tagVersionDescription.getPattern()))
+                        .filter(tag -> RegexGuard.matches(tagPattern, tag))
                         .max(comparing(DefaultArtifactVersion::new));
                 if (versionTag.isPresent()) {
                     gitRefType = "tag";
                     gitRefName = versionTag.get();
                     versionDescription = tagVersionDescription;
+                    versionPattern = tagPattern;
                     break;
                 }
             }
         }
-        Map<String, String> refFields = valueGroupMap(versionDescription.getPattern(), gitRefName);
+        Map<String, String> refFields = valueGroupMap(versionPattern, gitRefName);
         refFields.remove("0");
 
         Map<String, String> projectVersionDataMap = new HashMap<>();
@@ -70,6 +114,9 @@ public final class GitVersioning {
         projectVersionDataMap.put("version.release", currentVersion.replaceFirst("-SNAPSHOT$",""));
         projectVersionDataMap.put("commit", repoSituation.getHeadCommit());
         projectVersionDataMap.put("commit.short", repoSituation.getHeadCommit().substring(0, 7));
+        int commitAbbrevLength = Math.max(commitAbbrevMinLength, repoSituation.getHeadCommitAbbrevLength());
+        projectVersionDataMap.put("commit.abbrev", repoSituation.getHeadCommit()
+                .substring(0, Math.min(commitAbbrevLength, repoSituation.getHeadCommit().length())));
         projectVersionDataMap.put("ref", gitRefName);
         projectVersionDataMap.put("describe", repoSituation.getHeadDescribe());
         projectVersionDataMap.put(gitRefType, gitRefName);
@@ -84,7 +131,8 @@ public final class GitVersioning {
                 gitRefType,
                 gitRefName,
                 refFields,
-                gitVersion
+                gitVersion,
+                repoSituation.getHeadCommitTime()
         );
     }
 }
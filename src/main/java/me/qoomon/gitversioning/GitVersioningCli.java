@@ -0,0 +1,193 @@
+package me.qoomon.gitversioning;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * Command line entry point, determines the version of a git working tree the same way the maven extension does,
+ * without a maven runtime.
+ * <p>
+ * <code>java -jar maven-git-versioning-extension-core.jar [--config FILE] [--directory DIR] [--format version|properties]</code>
+ * <p>
+ * Startup time is dominated by class loading, so configuration and pom file are read by plain StAX, see {@link ConfigurationReader},
+ * there is no reflection based binding and no static initialisation beyond the versioning core itself.
+ * The set of loaded classes is the same for each run, so the jar works well with an AppCDS archive.
+ */
+public final class GitVersioningCli {
+
+    static final String DEFAULT_CONFIG_FILE = ".mvn/maven-git-versioning-extension.xml";
+
+    private static final String USAGE = "usage: java -jar maven-git-versioning-extension-core.jar"
+            + " [--config FILE] [--directory DIR] [--project-version VERSION]"
+            + " [--branch NAME] [--tag NAME] [--format version|properties]";
+
+    private GitVersioningCli() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.out.print(run(args, System.getenv()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println("error: " + e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param args        command line arguments
+     * @param environment environment variables, provide branch or tag by <code>VERSIONING_GIT_BRANCH</code>
+     *                    and <code>VERSIONING_GIT_TAG</code>, like for the maven extension
+     * @return output
+     */
+    public static String run(String[] args, Map<String, String> environment) throws IOException {
+        File directory = new File(".");
+        File configFile = null;
+        String projectVersion = null;
+        String providedBranch = environment.get("VERSIONING_GIT_BRANCH");
+        String providedTag = environment.get("VERSIONING_GIT_TAG");
+        String format = "version";
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--help":
+                    return USAGE + "\n";
+                case "--directory":
+                    directory = new File(value(args, ++i, arg));
+                    break;
+                case "--config":
+                    configFile = new File(value(args, ++i, arg));
+                    break;
+                case "--project-version":
+                    projectVersion = value(args, ++i, arg);
+                    break;
+                case "--branch":
+                    providedBranch = value(args, ++i, arg);
+                    break;
+                case "--tag":
+                    providedTag = value(args, ++i, arg);
+                    break;
+                case "--format":
+                    format = value(args, ++i, arg);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown argument '" + arg + "'");
+            }
+        }
+        if (!format.equals("version") && !format.equals("properties")) {
+            throw new IllegalArgumentException("unknown format '" + format + "', expected version or properties");
+        }
+        if (configFile == null) {
+            configFile = new File(directory, DEFAULT_CONFIG_FILE);
+        }
+        Configuration config = configFile.exists() ? readConfig(configFile) : new Configuration();
+        if (projectVersion == null) {
+            File pomFile = new File(directory, "pom.xml");
+            projectVersion = pomFile.isFile() ? readProjectVersion(pomFile) : null;
+        }
+
+        GitRepoSituation repoSituation = GitUtil.situation(directory, new Timings(),
+                config.describeTagPatterns(), config.branchRefPatterns());
+        if (providedBranch != null) {
+            repoSituation.setHeadBranch(providedBranch.isEmpty() ? null : providedBranch);
+        }
+        if (providedTag != null) {
+            repoSituation.setHeadTags(providedTag.isEmpty() ? emptyList() : singletonList(providedTag));
+        }
+        // perModule is ignored, versions always refer to HEAD
+        GitVersionDetails versionDetails = GitVersioning.determineVersion(repoSituation,
+                config.commitVersionDescription(), config.branchVersionDescriptions(), config.tagVersionDescriptions(),
+                projectVersion, config.commitAbbrevMinLength);
+
+        if (format.equals("version")) {
+            return versionDetails.getVersion() + "\n";
+        }
+        Properties properties = new Properties();
+        properties.setProperty("version", versionDetails.getVersion());
+        properties.setProperty("git.commit", versionDetails.getCommit());
+        if (versionDetails.getCommitTime() > 0) {
+            properties.setProperty("git.commit.timestamp", Instant.ofEpochSecond(versionDetails.getCommitTime()).toString());
+        }
+        properties.setProperty("git.ref", versionDetails.getCommitRefName());
+        properties.setProperty("git." + versionDetails.getCommitRefType(), versionDetails.getCommitRefName());
+        versionDetails.getMetaData().forEach((key, value) -> properties.setProperty("git.ref." + key, value));
+        return StringUtil.formatProperties(properties);
+    }
+
+    /**
+     * @param configFile config file
+     * @return configuration, read the same way as by the maven extension
+     * @throws IllegalArgumentException if <code>configFile</code> is invalid
+     */
+    private static Configuration readConfig(File configFile) {
+        try {
+            return ConfigurationReader.read(configFile);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("missing value of " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * @param pomFile pom file
+     * @return <code>project/version</code> or <code>project/parent/version</code> of <code>pomFile</code>
+     */
+    static String readProjectVersion(File pomFile) throws IOException {
+        String version = null;
+        String parentVersion = null;
+        try (InputStream input = Files.newInputStream(pomFile.toPath())) {
+            XMLStreamReader reader = newXmlInputFactory().createXMLStreamReader(input);
+            List<String> path = new ArrayList<>();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == START_ELEMENT) {
+                    path.add(reader.getLocalName());
+                    if (path.equals(Arrays.asList("project", "version"))) {
+                        version = reader.getElementText().trim();
+                        path.remove(path.size() - 1);
+                    } else if (path.equals(Arrays.asList("project", "parent", "version"))) {
+                        parentVersion = reader.getElementText().trim();
+                        path.remove(path.size() - 1);
+                    }
+                } else if (event == END_ELEMENT) {
+                    path.remove(path.size() - 1);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("invalid pom file " + pomFile + " - " + e.getMessage(), e);
+        }
+        return version != null ? version : parentVersion;
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
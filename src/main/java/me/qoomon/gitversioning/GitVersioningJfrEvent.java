@@ -0,0 +1,77 @@
+package me.qoomon.gitversioning;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Do not reference this class directly, use {@link JfrEvents}, it is only loadable if JFR is available.
+ */
+@Name("me.qoomon.gitversioning.GitVersioning")
+@Label("Git Versioning")
+@Description("Maven git versioning extension phase")
+@Category({"Maven", "Git Versioning"})
+class GitVersioningJfrEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Path")
+    String path;
+
+    @Label("Tag Count")
+    int tagCount;
+
+    @Label("Rule Count")
+    int ruleCount;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+
+    static JfrEvents.Span begin(String phase, Object path) {
+        GitVersioningJfrEvent event = new GitVersioningJfrEvent();
+        if (!event.isEnabled()) {
+            return JfrEvents.Span.NONE;
+        }
+        event.phase = phase;
+        event.path = path != null ? path.toString() : null;
+        event.begin();
+        return new Span(event);
+    }
+
+    private static class Span extends JfrEvents.Span {
+
+        private final GitVersioningJfrEvent event;
+
+        Span(GitVersioningJfrEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        public JfrEvents.Span tagCount(int tagCount) {
+            event.tagCount = tagCount;
+            return this;
+        }
+
+        @Override
+        public JfrEvents.Span ruleCount(int ruleCount) {
+            event.ruleCount = ruleCount;
+            return this;
+        }
+
+        @Override
+        public JfrEvents.Span bytesWritten(long bytesWritten) {
+            event.bytesWritten = bytesWritten;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package me.qoomon.gitversioning;
+
+/**
+ * Java Flight Recorder instrumentation of the versioning hot paths.
+ * <p>
+ * Emits <code>me.qoomon.gitversioning.GitVersioning</code> events, if JFR is available on the running JVM
+ * and the event is enabled by a recording, otherwise the shared no-op {@link Span#NONE} is returned.
+ * <p>
+ * JFR classes are only loaded after their availability has been checked, so this class is safe to use on Java 8 runtimes.
+ * The event class is only loaded once the flight recorder has been initialized, registering it costs several hundred
+ * milliseconds of startup time otherwise, even if there is no recording at all.
+ */
+public final class JfrEvents {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private JfrEvents() {
+    }
+
+    /**
+     * @param phase name of the instrumented phase, e.g. <code>git.describe</code>
+     * @param path  file or directory the phase operates on
+     * @return started event span, has to be closed to commit the event
+     */
+    public static Span begin(String phase, Object path) {
+        if (!AVAILABLE || !Recorder.isInitialized()) {
+            return Span.NONE;
+        }
+        return GitVersioningJfrEvent.begin(phase, path);
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Do not reference this class, unless JFR is available.
+     */
+    private static final class Recorder {
+
+        static boolean isInitialized() {
+            return jdk.jfr.FlightRecorder.isInitialized();
+        }
+    }
+
+    public static class Span implements AutoCloseable {
+
+        public static final Span NONE = new Span();
+
+        Span() {
+        }
+
+        public Span tagCount(int tagCount) {
+            return this;
+        }
+
+        public Span ruleCount(int ruleCount) {
+            return this;
+        }
+
+        public Span bytesWritten(long bytesWritten) {
+            return this;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Collections.emptyList;
+import static me.qoomon.UncheckedExceptions.unchecked;
+import static org.eclipse.jgit.lib.Constants.OBJECT_ID_LENGTH;
+import static org.eclipse.jgit.lib.Constants.OBJECT_ID_STRING_LENGTH;
+
+/**
+ * Shortest unique object id prefix, same as <code>git rev-parse --short</code>.
+ * <p>
+ * The prefix has to be longer than the longest common prefix with any other object. Objects of a pack are sorted,
+ * so only the direct neighbours of the id within the pack index are compared, located by fanout table and binary search.
+ * Loose objects are compared by listing a single fanout directory. Each call costs a few reads per pack,
+ * instead of one object lookup per prefix length candidate.
+ * <p>
+ * Fanout tables are read once on {@link #open(Repository)}, object ids are read on demand.
+ * Pack index files stay open until {@link #close()}, so open one instance per opened repository.
+ */
+final class ObjectAbbreviation implements AutoCloseable {
+
+    /**
+     * Minimum prefix length, same as git.
+     */
+    static final int MIN_LENGTH = 4;
+
+    private static final int PACK_INDEX_SIGNATURE = 0xff744f63;
+    private static final int FANOUT_SIZE = 256 * 4;
+
+    private final Repository repository;
+    /**
+     * Objects directory and its alternates, empty if objects are looked up by object reader instead.
+     */
+    private final List<File> objectsDirectories;
+    private final List<PackIndex> packIndexes;
+
+    private ObjectAbbreviation(Repository repository, List<File> objectsDirectories, List<PackIndex> packIndexes) {
+        this.repository = repository;
+        this.objectsDirectories = objectsDirectories;
+        this.packIndexes = packIndexes;
+    }
+
+    /**
+     * @param repository repository
+     * @return abbreviation of objects of <code>repository</code>, falls back to object reader lookups
+     * for repositories without objects directory or unexpected pack index format
+     */
+    static ObjectAbbreviation open(Repository repository) {
+        File gitDir = repository.getDirectory();
+        File objectsDirectory = gitDir != null ? new File(gitDir, "objects") : null;
+        if (objectsDirectory == null || !objectsDirectory.isDirectory()) {
+            return new ObjectAbbreviation(repository, emptyList(), emptyList());
+        }
+        List<PackIndex> packIndexes = new ArrayList<>();
+        try {
+            Set<File> objectsDirectories = objectsDirectories(objectsDirectory);
+            for (File directory : objectsDirectories) {
+                File[] indexFiles = new File(directory, "pack").listFiles((dir, name) -> name.endsWith(".idx"));
+                if (indexFiles != null) {
+                    for (File indexFile : indexFiles) {
+                        packIndexes.add(PackIndex.open(indexFile));
+                    }
+                }
+            }
+            return new ObjectAbbreviation(repository, new ArrayList<>(objectsDirectories), packIndexes);
+        } catch (IOException | RuntimeException e) {
+            // unexpected pack index format
+            packIndexes.forEach(PackIndex::close);
+            return new ObjectAbbreviation(repository, emptyList(), emptyList());
+        }
+    }
+
+    /**
+     * @param id object id
+     * @return length of shortest unique prefix of <code>id</code>, at least {@link #MIN_LENGTH}
+     */
+    int uniqueLength(AnyObjectId id) {
+        if (objectsDirectories.isEmpty()) {
+            return uniqueLengthByLookup(id);
+        }
+        byte[] idBytes = new byte[OBJECT_ID_LENGTH];
+        id.copyRawTo(idBytes, 0);
+        int commonLength = 0;
+        try {
+            for (PackIndex packIndex : packIndexes) {
+                commonLength = Math.max(commonLength, packIndex.commonLength(idBytes));
+            }
+        } catch (IOException | RuntimeException e) {
+            // unexpected pack index format or pack index removed by gc
+            return uniqueLengthByLookup(id);
+        }
+        for (File objectsDirectory : objectsDirectories) {
+            commonLength = Math.max(commonLength, commonLengthOfLooseObjects(objectsDirectory, id));
+        }
+        return Math.min(Math.max(commonLength + 1, MIN_LENGTH), OBJECT_ID_STRING_LENGTH);
+    }
+
+    @Override
+    public void close() {
+        packIndexes.forEach(PackIndex::close);
+    }
+
+    private int uniqueLengthByLookup(AnyObjectId id) {
+        try (ObjectReader reader = repository.newObjectReader()) {
+            return unchecked(() -> reader.abbreviate(id, MIN_LENGTH)).length();
+        }
+    }
+
+    /**
+     * @return objects directory and its alternates
+     */
+    private static Set<File> objectsDirectories(File objectsDirectory) throws IOException {
+        Set<File> objectsDirectories = new LinkedHashSet<>();
+        addObjectsDirectories(objectsDirectory, objectsDirectories);
+        return objectsDirectories;
+    }
+
+    private static void addObjectsDirectories(File objectsDirectory, Set<File> objectsDirectories) throws IOException {
+        if (!objectsDirectories.add(objectsDirectory.getCanonicalFile())) {
+            return;
+        }
+        File alternatesFile = new File(objectsDirectory, "info/alternates");
+        if (alternatesFile.isFile()) {
+            for (String alternate : Files.readAllLines(alternatesFile.toPath(), UTF_8)) {
+                if (!alternate.isEmpty() && !alternate.startsWith("#")) {
+                    File alternateDirectory = new File(alternate);
+                    addObjectsDirectories(alternateDirectory.isAbsolute()
+                            ? alternateDirectory
+                            : new File(objectsDirectory, alternate), objectsDirectories);
+                }
+            }
+        }
+    }
+
+    private static int commonLengthOfLooseObjects(File objectsDirectory, AnyObjectId id) {
+        String name = id.name();
+        String[] fileNames = new File(objectsDirectory, name.substring(0, 2)).list();
+        if (fileNames == null) {
+            return 0;
+        }
+        int commonLength = 0;
+        for (String fileName : fileNames) {
+            if (fileName.length() != OBJECT_ID_STRING_LENGTH - 2 || name.regionMatches(2, fileName, 0, fileName.length())) {
+                continue; // temp file or id itself
+            }
+            int length = 2;
+            while (name.charAt(length) == fileName.charAt(length - 2)) {
+                length++;
+            }
+            commonLength = Math.max(commonLength, length);
+        }
+        return commonLength;
+    }
+
+    /**
+     * Pack index, version 1 or 2, read by positional reads instead of a memory mapping,
+     * a mapping would keep the file locked on windows until it is garbage collected.
+     */
+    private static final class PackIndex {
+
+        private final FileChannel channel;
+        private final int[] fanout;
+        private final long idsOffset;
+        private final int idStride;
+        private final ByteBuffer idBuffer = ByteBuffer.allocate(OBJECT_ID_LENGTH);
+
+        private PackIndex(FileChannel channel, int[] fanout, long idsOffset, int idStride) {
+            this.channel = channel;
+            this.fanout = fanout;
+            this.idsOffset = idsOffset;
+            this.idStride = idStride;
+        }
+
+        static PackIndex open(File indexFile) throws IOException {
+            FileChannel channel = FileChannel.open(indexFile.toPath(), READ);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(8 + FANOUT_SIZE);
+                read(channel, header, 0);
+                int fanoutOffset;
+                long idsOffset;
+                int idStride;
+                if (header.getInt(0) == PACK_INDEX_SIGNATURE) {
+                    if (header.getInt(4) != 2) {
+                        throw new IllegalArgumentException("unsupported pack index version " + header.getInt(4));
+                    }
+                    fanoutOffset = 8;
+                    idsOffset = fanoutOffset + FANOUT_SIZE;
+                    idStride = OBJECT_ID_LENGTH;
+                } else {
+                    fanoutOffset = 0;
+                    idsOffset = FANOUT_SIZE + 4; // object offset precedes each id
+                    idStride = 4 + OBJECT_ID_LENGTH;
+                }
+                int[] fanout = new int[256];
+                for (int i = 0; i < fanout.length; i++) {
+                    fanout[i] = header.getInt(fanoutOffset + i * 4);
+                }
+                return new PackIndex(channel, fanout, idsOffset, idStride);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @param idBytes raw object id
+         * @return longest common prefix length of <code>idBytes</code> with any other object of pack
+         */
+        int commonLength(byte[] idBytes) throws IOException {
+            // objects with other first byte share at most one hex digit, which is below minimum length anyway
+            int firstByte = idBytes[0] & 0xff;
+            int low = firstByte == 0 ? 0 : fanout[firstByte - 1];
+            int high = fanout[firstByte];
+
+            // binary search for first object not less than id
+            int position = low;
+            int end = high;
+            while (position < end) {
+                int middle = (position + end) >>> 1;
+                if (compare(readId(middle), idBytes) < 0) {
+                    position = middle + 1;
+                } else {
+                    end = middle;
+                }
+            }
+
+            int commonLength = 0;
+            if (position > low) {
+                commonLength = ObjectAbbreviation.commonLength(readId(position - 1), idBytes);
+            }
+            int next = position;
+            if (next < high && compare(readId(next), idBytes) == 0) {
+                next++; // id itself
+            }
+            if (next < high) {
+                commonLength = Math.max(commonLength, ObjectAbbreviation.commonLength(readId(next), idBytes));
+            }
+            return commonLength;
+        }
+
+        private byte[] readId(int index) throws IOException {
+            idBuffer.clear();
+            read(channel, idBuffer, idsOffset + (long) index * idStride);
+            return idBuffer.array();
+        }
+
+        void close() {
+            unchecked(channel::close);
+        }
+
+        private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new EOFException("unexpected end of pack index");
+                }
+            }
+        }
+    }
+
+    private static int compare(byte[] id, byte[] idBytes) {
+        for (int i = 0; i < OBJECT_ID_LENGTH; i++) {
+            int difference = (id[i] & 0xff) - (idBytes[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return number of common leading hex digits
+     */
+    private static int commonLength(byte[] id, byte[] idBytes) {
+        for (int i = 0; i < OBJECT_ID_LENGTH; i++) {
+            int difference = (id[i] & 0xff) ^ (idBytes[i] & 0xff);
+            if (difference != 0) {
+                return i * 2 + (difference > 0x0f ? 0 : 1);
+            }
+        }
+        return OBJECT_ID_STRING_LENGTH;
+    }
+}
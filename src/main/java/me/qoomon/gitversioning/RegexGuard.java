@@ -0,0 +1,141 @@
+package me.qoomon.gitversioning;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles and evaluates user supplied patterns with a bounded number of evaluation steps,
+ * so a pattern prone to catastrophic backtracking fails fast instead of hanging the build.
+ * <p>
+ * Evaluation steps are counted as character reads of the matched text, see {@link BoundedCharSequence}.
+ */
+public final class RegexGuard {
+
+    /**
+     * Maximum character reads per evaluation, matching a ref name usually needs less than a thousand.
+     */
+    public static final int MAX_STEPS = 1_000_000;
+
+    /**
+     * Repetitive ref name like texts, that trigger catastrophic backtracking of common pattern mistakes e.g. <code>(.*a){12}b</code>
+     */
+    private static final String[] PROBE_TEXTS = {
+            repeat('a', 64) + "!",
+            repeat('0', 64) + "!",
+            repeat('-', 64) + "!",
+            repeat('/', 64) + "!",
+            repeat('.', 64) + "!",
+    };
+
+    private RegexGuard() {
+    }
+
+    /**
+     * Compiles <code>regex</code> and evaluates it against some probe texts to detect catastrophic backtracking early.
+     * Probing is best effort, evaluation of matching functions is always bounded.
+     *
+     * @param regex pattern
+     * @return compiled pattern
+     * @throws IllegalArgumentException if <code>regex</code> is not a valid pattern or exceeds {@link #MAX_STEPS} on a probe text
+     */
+    public static Pattern compile(String regex) {
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("invalid pattern '" + regex + "' - " + e.getDescription()
+                    + " near index " + e.getIndex(), e);
+        }
+        for (String probeText : PROBE_TEXTS) {
+            find(pattern, probeText);
+        }
+        return pattern;
+    }
+
+    /**
+     * @param pattern pattern
+     * @param text    text
+     * @return true if <code>pattern</code> matches entire <code>text</code>
+     * @throws IllegalArgumentException if evaluation exceeds {@link #MAX_STEPS}
+     */
+    public static boolean matches(Pattern pattern, String text) {
+        try {
+            return pattern.matcher(new BoundedCharSequence(text)).matches();
+        } catch (BoundedCharSequence.StepLimitExceeded e) {
+            throw stepLimitExceeded(pattern, text);
+        }
+    }
+
+    /**
+     * @param pattern pattern
+     * @param text    text
+     * @return matcher positioned at first match of <code>pattern</code> within <code>text</code> or null, if there is none
+     * @throws IllegalArgumentException if evaluation exceeds {@link #MAX_STEPS}
+     */
+    public static Matcher find(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(new BoundedCharSequence(text));
+        try {
+            return matcher.find() ? matcher : null;
+        } catch (BoundedCharSequence.StepLimitExceeded e) {
+            throw stepLimitExceeded(pattern, text);
+        }
+    }
+
+    private static IllegalArgumentException stepLimitExceeded(Pattern pattern, String text) {
+        return new IllegalArgumentException("pattern '" + pattern + "' exceeded " + MAX_STEPS
+                + " evaluation steps on '" + text + "'"
+                + " - simplify pattern e.g. avoid repeated groups of greedy quantifiers like '(.*a){12}'");
+    }
+
+    private static String repeat(char character, int count) {
+        StringBuilder text = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            text.append(character);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Counts character reads and aborts evaluation as soon as {@link #MAX_STEPS} is exceeded.
+     */
+    private static final class BoundedCharSequence implements CharSequence {
+
+        private final String text;
+        private int steps;
+
+        BoundedCharSequence(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++steps > MAX_STEPS) {
+                throw new StepLimitExceeded();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+
+        private static final class StepLimitExceeded extends RuntimeException {
+
+            StepLimitExceeded() {
+                super(null, null, false, false); // no stack trace, thrown deep within matcher recursion
+            }
+        }
+    }
+}
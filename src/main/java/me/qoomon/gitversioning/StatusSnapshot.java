@@ -0,0 +1,411 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.jgit.lib.Constants.DOT_GIT;
+import static org.eclipse.jgit.lib.Constants.DOT_GIT_IGNORE;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+
+/**
+ * Working tree state of the last clean status, stored at <code>.git/git-versioning/status-snapshot</code>.
+ * <p>
+ * Snapshot is bound to HEAD commit and index checksum. It records size, modification time, mode and change time of tracked files,
+ * modification time of not ignored directories and ignored paths. Files and directories, that differ from the snapshot,
+ * are re-checked by a path limited status, instead of a status of the whole working tree.
+ * <p>
+ * Entries modified shortly before the snapshot has been taken are racily clean, a later modification within the same
+ * timestamp granularity is not detectable, so those entries are always re-checked.
+ */
+final class StatusSnapshot {
+
+    static final String FILE_PATH = "git-versioning/status-snapshot";
+
+    private static final String HEADER = "status-snapshot 2";
+
+    /**
+     * Covers file systems with coarse timestamp granularity e.g. 2 seconds of FAT.
+     */
+    private static final long RACY_MILLIS = 2_000;
+
+    private static final LinkOption[] NO_FOLLOW_LINKS = {LinkOption.NOFOLLOW_LINKS};
+
+    /**
+     * Unix attributes provide file mode and change time, a mode change does not touch the modification time.
+     */
+    private static final boolean UNIX_ATTRIBUTES = FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+
+    private final String head;
+    private final String indexChecksum;
+    private final long scanMillis;
+    private final Map<String, FileStat> files = new HashMap<>();
+    private final Map<String, Long> directories = new HashMap<>();
+    private final Set<String> ignoredPaths = new HashSet<>();
+    private final Map<String, FileStat> configFiles = new HashMap<>();
+
+    private StatusSnapshot(String head, String indexChecksum, long scanMillis) {
+        this.head = head;
+        this.indexChecksum = indexChecksum;
+        this.scanMillis = scanMillis;
+    }
+
+    /**
+     * @param repository repository
+     * @return snapshot of <code>repository</code> or null, if there is no valid snapshot for current HEAD and index
+     */
+    static StatusSnapshot read(Repository repository) {
+        File file = new File(repository.getDirectory(), FILE_PATH);
+        if (repository.isBare() || !file.isFile()) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file.toPath(), UTF_8);
+            if (lines.size() < 4 || !lines.get(0).equals(HEADER)) {
+                return null;
+            }
+            StatusSnapshot snapshot = new StatusSnapshot(
+                    value(lines.get(1), "head"),
+                    value(lines.get(2), "index"),
+                    Long.parseLong(value(lines.get(3), "time")));
+            if (!snapshot.head.equals(head(repository)) || !snapshot.indexChecksum.equals(indexChecksum(repository))) {
+                return null;
+            }
+            for (String line : lines.subList(4, lines.size())) {
+                String[] fields;
+                switch (line.charAt(0)) {
+                    case 'f':
+                        fields = line.split(" ", 6);
+                        snapshot.files.put(fields[5], FileStat.parse(fields));
+                        break;
+                    case 'd':
+                        fields = line.split(" ", 3);
+                        snapshot.directories.put(fields[2], Long.parseLong(fields[1]));
+                        break;
+                    case 'i':
+                        snapshot.ignoredPaths.add(line.substring(2));
+                        break;
+                    case 'c':
+                        fields = line.split(" ", 6);
+                        snapshot.configFiles.put(fields[5], FileStat.parse(fields));
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            // corrupt snapshot file, start over
+            return null;
+        }
+    }
+
+    /**
+     * Creates snapshot of a clean working tree.
+     *
+     * @param repository   repository
+     * @param ignoredPaths ignored paths, as reported by status
+     * @param scanMillis   time before clean status has been determined
+     * @return snapshot or null, if working tree is not supported e.g. it contains submodules or unmerged paths
+     */
+    static StatusSnapshot create(Repository repository, Collection<String> ignoredPaths, long scanMillis) {
+        try {
+            StatusSnapshot snapshot = new StatusSnapshot(head(repository), indexChecksum(repository), scanMillis);
+            Path workTree = repository.getWorkTree().toPath();
+
+            DirCache dirCache = repository.readDirCache();
+            for (int i = 0; i < dirCache.getEntryCount(); i++) {
+                DirCacheEntry entry = dirCache.getEntry(i);
+                if (entry.getStage() != DirCacheEntry.STAGE_0 || entry.getFileMode() == FileMode.GITLINK
+                        || entry.getPathString().indexOf('\n') >= 0) {
+                    return null;
+                }
+                if (entry.isAssumeValid() || entry.isSkipWorkTree()) {
+                    continue;
+                }
+                String path = entry.getPathString();
+                FileStat stat = FileStat.of(workTree.resolve(path));
+                if (stat == null) {
+                    return null;
+                }
+                snapshot.files.put(path, stat);
+            }
+            snapshot.ignoredPaths.addAll(ignoredPaths);
+
+            // all not ignored directories, including empty directories without tracked files
+            Deque<String> directoryQueue = new ArrayDeque<>();
+            directoryQueue.add("");
+            while (!directoryQueue.isEmpty()) {
+                String directory = directoryQueue.poll();
+                Path directoryPath = workTree.resolve(directory);
+                snapshot.directories.put(directory, FileStat.of(directoryPath).lastModified);
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(directoryPath)) {
+                    for (Path child : children) {
+                        String childPath = childPath(directory, child.getFileName().toString());
+                        if (!childPath.equals(DOT_GIT) && !snapshot.ignoredPaths.contains(childPath)
+                                && Files.isDirectory(child, NO_FOLLOW_LINKS) && !snapshot.files.containsKey(childPath)) {
+                            directoryQueue.add(childPath);
+                        }
+                    }
+                }
+            }
+
+            for (File configFile : configFiles(repository)) {
+                FileStat stat = FileStat.of(configFile.toPath());
+                if (stat != null) {
+                    snapshot.configFiles.put(configFile.getAbsolutePath(), stat);
+                }
+            }
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param repository repository
+     * @return paths, that may have changed since snapshot has been taken, or null if the whole working tree has to be checked
+     * e.g. because ignore rules may have changed
+     */
+    Set<String> touchedPaths(Repository repository) {
+        Path workTree = repository.getWorkTree().toPath();
+        Set<String> touchedPaths = new TreeSet<>();
+
+        Map<String, FileStat> currentConfigFiles = new HashMap<>();
+        for (File configFile : configFiles(repository)) {
+            FileStat stat = FileStat.of(configFile.toPath());
+            if (stat != null) {
+                currentConfigFiles.put(configFile.getAbsolutePath(), stat);
+            }
+        }
+        if (!currentConfigFiles.equals(configFiles)) {
+            return null;
+        }
+
+        for (Map.Entry<String, FileStat> file : files.entrySet()) {
+            FileStat stat = FileStat.of(workTree.resolve(file.getKey()));
+            if (!file.getValue().equals(stat) || isRacy(file.getValue().lastModified)) {
+                touchedPaths.add(file.getKey());
+            }
+        }
+
+        for (Map.Entry<String, Long> directory : directories.entrySet()) {
+            Path directoryPath = workTree.resolve(directory.getKey());
+            FileStat stat = FileStat.of(directoryPath);
+            if (stat == null) {
+                touchedPaths.add(directory.getKey());
+            } else if (stat.lastModified != directory.getValue() || isRacy(directory.getValue())) {
+                // entries have been added, removed or renamed
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(directoryPath)) {
+                    for (Path child : children) {
+                        String childPath = childPath(directory.getKey(), child.getFileName().toString());
+                        if (!childPath.equals(DOT_GIT) && !files.containsKey(childPath)
+                                && !directories.containsKey(childPath) && !ignoredPaths.contains(childPath)) {
+                            touchedPaths.add(childPath);
+                        }
+                    }
+                } catch (IOException e) {
+                    touchedPaths.add(directory.getKey());
+                }
+            }
+        }
+
+        for (String touchedPath : touchedPaths) {
+            if (touchedPath.equals(DOT_GIT_IGNORE) || touchedPath.endsWith("/" + DOT_GIT_IGNORE)) {
+                return null;
+            }
+        }
+        return touchedPaths;
+    }
+
+    Set<String> getIgnoredPaths() {
+        return ignoredPaths;
+    }
+
+    /**
+     * Writes snapshot file. Snapshot is best effort, write failures are ignored.
+     *
+     * @param repository repository
+     */
+    void write(Repository repository) {
+        Path path = new File(repository.getDirectory(), FILE_PATH).toPath();
+        try {
+            FileUtil.writeAtomically(path, UTF_8, writer -> {
+                writer.write(HEADER + "\n");
+                writer.write("head " + head + "\n");
+                writer.write("index " + indexChecksum + "\n");
+                writer.write("time " + scanMillis + "\n");
+                for (Map.Entry<String, FileStat> file : files.entrySet()) {
+                    writer.write("f " + file.getValue().format() + " " + file.getKey() + "\n");
+                }
+                for (Map.Entry<String, Long> directory : directories.entrySet()) {
+                    writer.write("d " + directory.getValue() + " " + directory.getKey() + "\n");
+                }
+                for (String ignoredPath : ignoredPaths) {
+                    writer.write("i " + ignoredPath + "\n");
+                }
+                for (Map.Entry<String, FileStat> configFile : configFiles.entrySet()) {
+                    writer.write("c " + configFile.getValue().format() + " " + configFile.getKey() + "\n");
+                }
+            });
+        } catch (IOException e) {
+            // ignore, status will be determined from scratch next time
+        }
+    }
+
+    /**
+     * @param repository repository
+     */
+    static void delete(Repository repository) {
+        deleteIfExists(new File(repository.getDirectory(), FILE_PATH).toPath());
+    }
+
+    private boolean isRacy(long lastModified) {
+        return lastModified >= scanMillis - RACY_MILLIS;
+    }
+
+    private static String head(Repository repository) throws IOException {
+        ObjectId head = repository.resolve(HEAD);
+        return head != null ? head.name() : "none";
+    }
+
+    /**
+     * @return checksum trailer of the index file
+     */
+    private static String indexChecksum(Repository repository) throws IOException {
+        File indexFile = repository.getIndexFile();
+        if (!indexFile.isFile()) {
+            return "none";
+        }
+        try (RandomAccessFile index = new RandomAccessFile(indexFile, "r")) {
+            byte[] checksum = new byte[20];
+            index.seek(index.length() - checksum.length);
+            index.readFully(checksum);
+            return ObjectId.fromRaw(checksum).name();
+        }
+    }
+
+    /**
+     * @return files, that contain ignore rules or configure them, besides <code>.gitignore</code> files
+     */
+    private static List<File> configFiles(Repository repository) {
+        List<File> configFiles = new ArrayList<>();
+        configFiles.add(new File(repository.getDirectory(), "config"));
+        configFiles.add(new File(repository.getDirectory(), "info/exclude"));
+        String excludesFile = repository.getConfig().getString("core", null, "excludesfile");
+        if (excludesFile != null) {
+            configFiles.add(repository.getFS().resolve(null, excludesFile));
+        }
+        return configFiles;
+    }
+
+    private static String childPath(String directory, String name) {
+        return directory.isEmpty() ? name : directory + "/" + name;
+    }
+
+    private static String value(String line, String key) {
+        if (!line.startsWith(key + " ")) {
+            throw new IllegalArgumentException("expected '" + key + "' line");
+        }
+        return line.substring(key.length() + 1);
+    }
+
+    private static void deleteIfExists(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private static final class FileStat {
+
+        final long size;
+        final long lastModified;
+        final int mode; // 0 if not available
+        final long changeTime; // 0 if not available
+
+        FileStat(long size, long lastModified, int mode, long changeTime) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.mode = mode;
+            this.changeTime = changeTime;
+        }
+
+        /**
+         * @return stat of <code>path</code> itself, not of a symbolic link target, or null if path does not exist
+         */
+        static FileStat of(Path path) {
+            try {
+                if (UNIX_ATTRIBUTES) {
+                    Map<String, Object> attributes = Files.readAttributes(path, "unix:isDirectory,size,lastModifiedTime,mode,ctime", NO_FOLLOW_LINKS);
+                    return new FileStat(
+                            (Boolean) attributes.get("isDirectory") ? 0 : (Long) attributes.get("size"),
+                            ((FileTime) attributes.get("lastModifiedTime")).toMillis(),
+                            (Integer) attributes.get("mode"),
+                            ((FileTime) attributes.get("ctime")).toMillis());
+                }
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, NO_FOLLOW_LINKS);
+                return new FileStat(attributes.isDirectory() ? 0 : attributes.size(), attributes.lastModifiedTime().toMillis(),
+                        0, 0);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        /**
+         * @param fields snapshot line fields, type, size, modification time, mode and change time
+         * @return stat of snapshot line
+         */
+        static FileStat parse(String[] fields) {
+            return new FileStat(Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                    Integer.parseInt(fields[3]), Long.parseLong(fields[4]));
+        }
+
+        String format() {
+            return size + " " + lastModified + " " + mode + " " + changeTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileStat)) {
+                return false;
+            }
+            FileStat that = (FileStat) o;
+            return size == that.size && lastModified == that.lastModified
+                    && mode == that.mode && changeTime == that.changeTime;
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(size) * 31 + Long.hashCode(lastModified)) * 31 + mode;
+        }
+    }
+}
@@ -1,28 +1,55 @@
 package me.qoomon.gitversioning;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static java.util.stream.Collectors.joining;
+
 public final class StringUtil {
 
+    private static final String PLACEHOLDER_START = "${";
+    private static final char PLACEHOLDER_END = '}';
+
+    private static final Pattern GROUP_NAME_PATTERN = Pattern.compile("\\(\\?<(?<name>[a-zA-Z][a-zA-Z0-9]*)>");
+
+    /**
+     * Substitutes <code>${key}</code> placeholders by values of <code>substitutionMap</code> in one single pass,
+     * placeholders without value are kept.
+     *
+     * @param text            text
+     * @param substitutionMap values by placeholder key
+     * @return substituted text
+     */
     public static String substituteText(String text, Map<String, String> substitutionMap) {
-        String result = text;
-
-        final Pattern placeholderPattern = Pattern.compile("\\$\\{(.+?)}");
-        final Matcher placeholderMatcher = placeholderPattern.matcher(text);
-        while (placeholderMatcher.find()) {
-            String substitutionKey = placeholderMatcher.group(1);
-            String substitutionValue = substitutionMap.get(substitutionKey);
-            if(substitutionValue != null) {
-                result = result.replaceAll("\\$\\{" + substitutionKey + "}", substitutionValue);
+        int placeholderStart = text.indexOf(PLACEHOLDER_START);
+        if (placeholderStart < 0) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length() + 32);
+        int textIndex = 0;
+        while (placeholderStart >= 0) {
+            int placeholderEnd = text.indexOf(PLACEHOLDER_END, placeholderStart + PLACEHOLDER_START.length() + 1);
+            if (placeholderEnd < 0) {
+                break;
+            }
+            String substitutionValue = substitutionMap.get(
+                    text.substring(placeholderStart + PLACEHOLDER_START.length(), placeholderEnd));
+            if (substitutionValue != null) {
+                result.append(text, textIndex, placeholderStart).append(substitutionValue);
+                textIndex = placeholderEnd + 1;
             }
+            placeholderStart = text.indexOf(PLACEHOLDER_START, placeholderEnd + 1);
         }
-
-        return result;
+        return result.append(text, textIndex, text.length()).toString();
     }
 
     /**
@@ -31,10 +58,20 @@ public final class StringUtil {
      * @return a map of group-index and group-name to matching value
      */
     public static Map<String, String> valueGroupMap(String regex, String text) {
+        return valueGroupMap(Pattern.compile(regex), text);
+    }
+
+    /**
+     * Evaluation is bounded, see {@link RegexGuard}.
+     *
+     * @param groupPattern pattern
+     * @param text         to parse
+     * @return a map of group-index and group-name to matching value
+     */
+    public static Map<String, String> valueGroupMap(Pattern groupPattern, String text) {
         Map<String, String> result = new HashMap<>();
-        Pattern groupPattern = Pattern.compile(regex);
-        Matcher groupMatcher = groupPattern.matcher(text);
-        if (groupMatcher.find()) {
+        Matcher groupMatcher = RegexGuard.find(groupPattern, text);
+        if (groupMatcher != null) {
             // add group index to value entries
             for (int i = 0; i <= groupMatcher.groupCount(); i++) {
                 result.put(String.valueOf(i), groupMatcher.group(i));
@@ -47,8 +84,7 @@ public final class StringUtil {
 
     private static Set<String> patternGroupNames(Pattern groupPattern) {
         Set<String> groupNames = new HashSet<>();
-        Pattern groupNamePattern = Pattern.compile("\\(\\?<(?<name>[a-zA-Z][a-zA-Z0-9]*)>");
-        Matcher groupNameMatcher = groupNamePattern.matcher(groupPattern.toString());
+        Matcher groupNameMatcher = GROUP_NAME_PATTERN.matcher(groupPattern.toString());
 
         // add group name to value Entries
         while (groupNameMatcher.find()) {
@@ -57,4 +93,21 @@ public final class StringUtil {
         }
         return groupNames;
     }
+
+    /**
+     * @param properties properties
+     * @return properties file content with sorted keys and without timestamp comment
+     */
+    public static String formatProperties(Properties properties) {
+        StringWriter propertiesWriter = new StringWriter();
+        try {
+            properties.store(propertiesWriter, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Arrays.stream(propertiesWriter.toString().split("\\R"))
+                .filter(line -> !line.startsWith("#"))
+                .sorted()
+                .collect(joining("\n", "", "\n"));
+    }
 }
@@ -0,0 +1,102 @@
+package me.qoomon.gitversioning;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * Collects durations of named phases.
+ */
+public class Timings {
+
+    private final ConcurrentMap<String, Queue<Long>> durations;
+
+    public Timings() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @param durations backing store of phase name to durations in nanoseconds
+     */
+    public Timings(ConcurrentMap<String, Queue<Long>> durations) {
+        this.durations = durations;
+    }
+
+    public <T> T measure(String phase, Supplier<T> action) {
+        long startNanos = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    public void record(String phase, long durationNanos) {
+        durations.computeIfAbsent(phase, key -> new ConcurrentLinkedQueue<>()).add(durationNanos);
+    }
+
+    public boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    /**
+     * @return statistics per phase, ordered by total duration descending
+     */
+    public Map<String, Statistics> statistics() {
+        Map<String, Statistics> result = new LinkedHashMap<>();
+        durations.entrySet().stream()
+                .map(entry -> new Statistics(entry.getKey(), entry.getValue()))
+                .sorted(comparing(Statistics::getTotalNanos).reversed())
+                .forEach(statistics -> result.put(statistics.getPhase(), statistics));
+        return result;
+    }
+
+    public static class Statistics {
+
+        private final String phase;
+        private final long[] sortedDurations;
+        private final long totalNanos;
+
+        Statistics(String phase, Collection<Long> durations) {
+            this.phase = phase;
+            this.sortedDurations = durations.stream().mapToLong(Long::longValue).sorted().toArray();
+            this.totalNanos = Arrays.stream(sortedDurations).sum();
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        public int getCount() {
+            return sortedDurations.length;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return percentileNanos(100);
+        }
+
+        /**
+         * @param percentile 0 - 100
+         * @return nearest-rank percentile duration
+         */
+        public long percentileNanos(int percentile) {
+            if (sortedDurations.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sortedDurations.length);
+            return sortedDurations[Math.max(rank, 1) - 1];
+        }
+    }
+}
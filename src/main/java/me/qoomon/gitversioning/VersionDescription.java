@@ -1,9 +1,13 @@
 package me.qoomon.gitversioning;
 
+import java.util.regex.Pattern;
+
 public class VersionDescription {
 
     private String pattern;
 
+    private volatile Pattern compiledPattern;
+
     private String versionFormat;
 
     public VersionDescription() {
@@ -21,6 +25,19 @@ public class VersionDescription {
 
     public void setPattern(final String pattern) {
         this.pattern = pattern != null ? pattern : ".*";
+        this.compiledPattern = null;
+    }
+
+    /**
+     * @return compiled {@link #getPattern()}, compiled once for all versions determined by this description
+     */
+    Pattern compiledPattern() {
+        Pattern compiledPattern = this.compiledPattern;
+        if (compiledPattern == null) {
+            compiledPattern = Pattern.compile(pattern);
+            this.compiledPattern = compiledPattern;
+        }
+        return compiledPattern;
     }
 
     public String getVersionFormat() {
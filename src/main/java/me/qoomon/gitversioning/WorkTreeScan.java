@@ -0,0 +1,331 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.errors.StopWalkException;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.TreeWalk.OperationType;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.IndexDiffFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.SkipWorkTreeFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static me.qoomon.UncheckedExceptions.unchecked;
+import static org.eclipse.jgit.lib.Constants.DOT_GIT;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+
+/**
+ * Full working tree status, partitioned by directories and compared in parallel on a fork/join pool.
+ * <p>
+ * Each partition is compared by its own tree walk of HEAD, index and working tree, filtered by {@link IndexDiffFilter}
+ * like JGit's status does. Partitions are formed by index entry count, directories with more than
+ * {@link #PARTITION_ENTRIES} entries are split into their children, small siblings are batched.
+ * Children are taken from index, HEAD tree and working tree, so each changed path is covered by a partition.
+ * The first change found cancels all other partitions.
+ * <p>
+ * Submodule changes are not covered by tree walks, working trees with submodules are scanned by JGit's status.
+ */
+final class WorkTreeScan {
+
+    /**
+     * Index entries per partition, large enough to outweigh walk setup e.g. loading of ignore rules.
+     */
+    static final int PARTITION_ENTRIES = 2_048;
+
+    // tree positions, HEAD tree is at 0
+    private static final int INDEX = 1;
+    private static final int WORKING_TREE = 2;
+
+    private final Repository repository;
+    private final DirCache dirCache;
+    private final ObjectId headTree;
+    private final int partitionEntries;
+
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private final Set<String> ignoredPaths = ConcurrentHashMap.newKeySet();
+
+    private WorkTreeScan(Repository repository, DirCache dirCache, ObjectId headTree, int partitionEntries) {
+        this.repository = repository;
+        this.dirCache = dirCache;
+        this.headTree = headTree;
+        this.partitionEntries = partitionEntries;
+    }
+
+    /**
+     * @param repository  repository
+     * @param parallelism number of threads
+     * @return scan result
+     */
+    static WorkTreeScan scan(Repository repository, int parallelism) {
+        return scan(repository, parallelism, PARTITION_ENTRIES);
+    }
+
+    /**
+     * @param repository       repository
+     * @param parallelism      number of threads
+     * @param partitionEntries index entries per partition
+     * @return scan result
+     */
+    static WorkTreeScan scan(Repository repository, int parallelism, int partitionEntries) {
+        DirCache dirCache = unchecked(repository::readDirCache);
+        WorkTreeScan scan = new WorkTreeScan(repository, dirCache, unchecked(() -> repository.resolve(HEAD + "^{tree}")),
+                partitionEntries);
+        if (hasGitlinks(dirCache)) {
+            Status status = unchecked(() -> Git.wrap(repository).status().call());
+            scan.changed.set(!status.isClean());
+            scan.ignoredPaths.addAll(status.getIgnoredNotInIndex());
+            return scan;
+        }
+
+        if (parallelism <= 1 || dirCache.getEntryCount() <= partitionEntries) {
+            scan.compare(null);
+            return scan;
+        }
+        // build cache tree upfront, it is lazily created by the first DirCacheIterator otherwise
+        dirCache.getCacheTree(true);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(scan.new Partition("", 0, dirCache.getEntryCount()));
+        } finally {
+            pool.shutdown();
+        }
+        return scan;
+    }
+
+    /**
+     * @return true if there are no changes, neither staged, nor unstaged, nor untracked
+     */
+    boolean isClean() {
+        return !changed.get();
+    }
+
+    /**
+     * @return ignored paths not in index, complete for clean working trees only
+     */
+    Set<String> getIgnoredPaths() {
+        return ignoredPaths;
+    }
+
+    private static boolean hasGitlinks(DirCache dirCache) {
+        for (int i = 0; i < dirCache.getEntryCount(); i++) {
+            if (dirCache.getEntry(i).getFileMode() == FileMode.GITLINK) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares HEAD, index and working tree, same as {@link org.eclipse.jgit.lib.IndexDiff}.
+     *
+     * @param paths paths to compare, null for whole working tree
+     */
+    private void compare(Collection<String> paths) {
+        if (changed.get()) {
+            return;
+        }
+        try (TreeWalk walk = new TreeWalk(repository)) {
+            walk.setOperationType(OperationType.CHECKIN_OP);
+            walk.setRecursive(true);
+            if (headTree != null) {
+                unchecked(() -> walk.addTree(headTree));
+            } else {
+                walk.addTree(new EmptyTreeIterator());
+            }
+            walk.addTree(new DirCacheIterator(dirCache));
+            FileTreeIterator workingTreeIterator = new FileTreeIterator(repository);
+            walk.addTree(workingTreeIterator);
+            workingTreeIterator.setDirCacheIterator(walk, INDEX);
+
+            List<TreeFilter> filters = new ArrayList<>();
+            filters.add(new CancelFilter());
+            if (paths != null) {
+                filters.add(PathFilterGroup.createFromStrings(paths));
+            }
+            filters.add(new SkipWorkTreeFilter(INDEX));
+            IndexDiffFilter indexDiffFilter = new IndexDiffFilter(INDEX, WORKING_TREE);
+            filters.add(indexDiffFilter);
+            walk.setFilter(AndTreeFilter.create(filters));
+
+            if (unchecked(walk::next)) {
+                changed.set(true);
+            }
+            ignoredPaths.addAll(indexDiffFilter.getIgnoredPaths());
+        }
+    }
+
+    /**
+     * Directory partition, covers index entries within <code>[start, end)</code> and working tree entries of directory.
+     */
+    private final class Partition extends RecursiveAction {
+
+        private final String directory;
+        private final int start;
+        private final int end;
+
+        /**
+         * @param directory directory path, empty or with trailing slash
+         * @param start     index of first entry within directory
+         * @param end       index after last entry within directory
+         */
+        Partition(String directory, int start, int end) {
+            this.directory = directory;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (changed.get()) {
+                return;
+            }
+            List<RecursiveAction> tasks = new ArrayList<>();
+            List<String> batch = new ArrayList<>();
+            int batchEntries = 0;
+            for (Map.Entry<String, int[]> child : children().entrySet()) {
+                String path = directory + child.getKey();
+                int[] range = child.getValue();
+                int entryCount = range[1] - range[0];
+                if (entryCount > partitionEntries) {
+                    tasks.add(new Partition(path + "/", range[0], range[1]));
+                    continue;
+                }
+                batch.add(path);
+                batchEntries += Math.max(entryCount, 1);
+                if (batchEntries >= partitionEntries) {
+                    tasks.add(new Batch(batch));
+                    batch = new ArrayList<>();
+                    batchEntries = 0;
+                }
+            }
+            if (!batch.isEmpty()) {
+                tasks.add(new Batch(batch));
+            }
+            invokeAll(tasks);
+        }
+
+        /**
+         * Entries of index are sorted by path, so entries of a child directory are contiguous.
+         *
+         * @return child names and their index entry ranges, HEAD tree and working tree only children have an empty range
+         */
+        private Map<String, int[]> children() {
+            Map<String, int[]> children = new TreeMap<>();
+            for (int i = start; i < end; i++) {
+                DirCacheEntry entry = dirCache.getEntry(i);
+                String path = entry.getPathString();
+                int separatorIndex = path.indexOf('/', directory.length());
+                String name = path.substring(directory.length(), separatorIndex >= 0 ? separatorIndex : path.length());
+                int[] range = children.get(name);
+                if (range == null) {
+                    children.put(name, new int[]{i, i + 1});
+                } else {
+                    range[1] = i + 1;
+                }
+            }
+
+            // e.g. staged deletions are in HEAD tree only
+            unchecked(() -> addHeadTreeChildren(children));
+
+            Path directoryPath = repository.getWorkTree().toPath().resolve(directory);
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directoryPath)) {
+                for (Path childPath : directoryStream) {
+                    String name = childPath.getFileName().toString();
+                    if (!(directory.isEmpty() && name.equals(DOT_GIT))) {
+                        children.putIfAbsent(name, new int[]{end, end});
+                    }
+                }
+            } catch (NoSuchFileException | NotDirectoryException e) {
+                // directory has been deleted, index entries are compared by their batches
+            } catch (IOException e) {
+                throw unchecked(e);
+            }
+            return children;
+        }
+
+        private void addHeadTreeChildren(Map<String, int[]> children) throws IOException {
+            if (headTree == null) {
+                return;
+            }
+            ObjectId directoryTree = headTree;
+            if (!directory.isEmpty()) {
+                try (TreeWalk directoryWalk = TreeWalk.forPath(repository, directory.substring(0, directory.length() - 1), headTree)) {
+                    if (directoryWalk == null || directoryWalk.getFileMode(0) != FileMode.TREE) {
+                        return;
+                    }
+                    directoryTree = directoryWalk.getObjectId(0);
+                }
+            }
+            try (TreeWalk walk = new TreeWalk(repository)) {
+                walk.addTree(directoryTree);
+                while (walk.next()) {
+                    children.putIfAbsent(walk.getNameString(), new int[]{end, end});
+                }
+            }
+        }
+    }
+
+    private final class Batch extends RecursiveAction {
+
+        private final List<String> paths;
+
+        Batch(List<String> paths) {
+            this.paths = paths;
+        }
+
+        @Override
+        protected void compute() {
+            compare(paths);
+        }
+    }
+
+    /**
+     * Stops walk as soon as another partition found a change.
+     */
+    private final class CancelFilter extends TreeFilter {
+
+        @Override
+        public boolean include(TreeWalk walker) {
+            if (changed.get()) {
+                throw StopWalkException.INSTANCE;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean shouldBeRecursive() {
+            return false;
+        }
+
+        @Override
+        public TreeFilter clone() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.FileUtil;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.SessionData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static me.qoomon.UncheckedExceptions.unchecked;
+
+/**
+ * Reactor modules with changed files since a base revision, provided by <code>git.changedSince</code> option.
+ * <p>
+ * Changed modules are exposed as <code>git.changedModules</code> session property and
+ * <code>target/git-changed-modules.txt</code> file, both are suitable as <code>--projects</code> argument.
+ * If <code>git.changedOnly</code> option is set, {@link LifecycleParticipant} restricts the session
+ * to changed modules and their dependents.
+ */
+final class ChangedModules {
+
+    static final String SINCE_OPTION = "git.changedSince";
+    static final String ONLY_OPTION = "git.changedOnly";
+    static final String PROPERTY = "git.changedModules";
+    static final String FILE_NAME = "git-changed-modules.txt";
+
+    private static final String SESSION_DATA_KEY = ChangedModules.class.getName();
+
+    private ChangedModules() {
+    }
+
+    /**
+     * Stores canonical paths of <code>moduleDirectories</code> within the repository session data,
+     * because {@link ModelProcessor} and mojos are loaded by different class realms.
+     *
+     * @param session           maven session
+     * @param moduleDirectories changed module directories
+     */
+    static void register(MavenSession session, Collection<File> moduleDirectories) {
+        List<String> paths = moduleDirectories.stream()
+                .map(directory -> unchecked(directory::getCanonicalPath))
+                .sorted()
+                .collect(toList());
+        SessionData sessionData = session.getRepositorySession().getData();
+        sessionData.set(SESSION_DATA_KEY, sessionData.get(SESSION_DATA_KEY), paths);
+    }
+
+    /**
+     * @param session maven session
+     * @return changed module directories or null, if <code>git.changedSince</code> option is not set
+     */
+    @SuppressWarnings("unchecked")
+    static List<File> registered(MavenSession session) {
+        List<String> paths = (List<String>) session.getRepositorySession().getData().get(SESSION_DATA_KEY);
+        return paths != null ? paths.stream().map(File::new).collect(toList()) : null;
+    }
+
+    /**
+     * @param baseDirectory     base directory e.g. top level project directory
+     * @param moduleDirectories module directories
+     * @return comma separated module paths relative to <code>baseDirectory</code>, <code>.</code> for base directory itself
+     */
+    static String format(File baseDirectory, Collection<File> moduleDirectories) {
+        Path basePath = unchecked(() -> baseDirectory.getCanonicalFile().toPath());
+        return moduleDirectories.stream()
+                .map(directory -> basePath.relativize(unchecked(() -> directory.getCanonicalFile().toPath())).toString())
+                .map(path -> path.isEmpty() ? "." : path.replace(File.separatorChar, '/'))
+                .sorted()
+                .collect(joining(","));
+    }
+
+    /**
+     * @param projects          session projects
+     * @param dependencyGraph   project dependency graph
+     * @param moduleDirectories changed module directories
+     * @return changed projects and their downstream projects, in order of <code>projects</code>
+     */
+    static List<MavenProject> select(List<MavenProject> projects, ProjectDependencyGraph dependencyGraph,
+                                     Collection<File> moduleDirectories) {
+        Set<File> changedDirectories = new HashSet<>(moduleDirectories);
+        Set<MavenProject> selectedProjects = new HashSet<>();
+        for (MavenProject project : projects) {
+            if (changedDirectories.contains(unchecked(() -> project.getBasedir().getCanonicalFile()))) {
+                selectedProjects.add(project);
+                selectedProjects.addAll(dependencyGraph.getDownstreamProjects(project, true));
+            }
+        }
+        List<MavenProject> result = new ArrayList<>();
+        for (MavenProject project : projects) {
+            if (selectedProjects.contains(project)) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes {@link #FILE_NAME} to a temporary file next to it first and moves it into place afterwards,
+     * so a concurrently reading CI step never sees a partial module list.
+     *
+     * @param baseDirectory     base directory, see {@link #format(File, Collection)}
+     * @param moduleDirectories changed module directories
+     * @param outputDirectory   output directory
+     * @throws IOException IOException
+     */
+    static void write(File baseDirectory, Collection<File> moduleDirectories, File outputDirectory) throws IOException {
+        String content = format(baseDirectory, moduleDirectories).replace(',', '\n');
+        FileUtil.writeAtomically(new File(outputDirectory, FILE_NAME).toPath(), UTF_8,
+                writer -> writer.write(content.isEmpty() ? "" : content + "\n"));
+    }
+}
@@ -2,7 +2,6 @@ package me.qoomon.maven.gitversioning;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoFailureException;
-import org.apache.maven.plugins.annotations.InstantiationStrategy;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -27,9 +26,16 @@ public class CleanMojo extends AbstractMojo {
 
     static final String GOAL = "clean";
 
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject currentProject;
+
     @Override
     public synchronized void execute() throws MojoFailureException {
-        File gitVersionedPomFile = new File(GIT_VERSIONING_POM_NAME);
+        File gitVersionedPomFile = new File(currentProject.getBuild().getDirectory(), GIT_VERSIONING_POM_NAME);
+        if (gitVersionedPomFile.equals(currentProject.getFile())) {
+            getLog().debug("Keeping " + gitVersionedPomFile.getPath() + " generated by this session");
+            return;
+        }
         if (gitVersionedPomFile.isFile()) {
             getLog().info("Deleting " + gitVersionedPomFile.getPath());
             boolean deleted = gitVersionedPomFile.delete();
@@ -0,0 +1,148 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.JfrEvents;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static me.qoomon.maven.gitversioning.MavenUtil.writeModel;
+import static me.qoomon.maven.gitversioning.VersioningMojo.GIT_VERSIONING_POM_NAME;
+
+/**
+ * Generation of git versioned pom files, that replace the original pom files of projects.
+ * <p>
+ * Pom files are generated by {@link VersioningMojo} within the build of each project by default.
+ * If {@link #BATCH_OPTION} is set, {@link LifecycleParticipant} generates the pom files of all projects
+ * at once after projects have been read, written by a bounded pool of writer threads.
+ */
+final class GitVersionedPoms {
+
+    static final String BATCH_OPTION = "git.batchPomWrite";
+
+    private static final int WRITER_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private GitVersionedPoms() {
+    }
+
+    /**
+     * @param project project
+     * @return true if pom file of <code>project</code> has already been replaced by an existing git versioned pom file
+     */
+    static boolean isReplaced(MavenProject project) {
+        return project.getFile().getName().equals(GIT_VERSIONING_POM_NAME) && project.getFile().isFile();
+    }
+
+    /**
+     * Generate git versioned pom file of <code>project</code> and replace project pom file with it.
+     *
+     * @param session maven session
+     * @param project project
+     * @throws IOException if pom file could not be written
+     */
+    static void replace(MavenSession session, MavenProject project) throws IOException {
+        File gitVersionedPomFile = gitVersionedPomFile(project);
+        write(session, gitVersionedPomFile, gitVersionedPomModel(session, project));
+        project.setPomFile(gitVersionedPomFile);
+    }
+
+    /**
+     * Generate git versioned pom files of all <code>projects</code> and replace project pom files with them.
+     * <p>
+     * Models are generated on the calling thread, files are written in parallel.
+     * Project pom files are only replaced, if all files have been written.
+     *
+     * @param session  maven session
+     * @param projects projects
+     * @throws IOException of first failed write, further failures are suppressed
+     */
+    static void replaceAll(MavenSession session, List<MavenProject> projects) throws IOException {
+        List<File> gitVersionedPomFiles = new ArrayList<>(projects.size());
+        List<Model> gitVersionedPomModels = new ArrayList<>(projects.size());
+        for (MavenProject project : projects) {
+            gitVersionedPomFiles.add(gitVersionedPomFile(project));
+            gitVersionedPomModels.add(gitVersionedPomModel(session, project));
+        }
+
+        ExecutorService writers = Executors.newFixedThreadPool(Math.max(1, Math.min(WRITER_THREADS, projects.size())));
+        try {
+            List<Future<?>> writes = new ArrayList<>(projects.size());
+            for (int i = 0; i < projects.size(); i++) {
+                File gitVersionedPomFile = gitVersionedPomFiles.get(i);
+                Model gitVersionedPomModel = gitVersionedPomModels.get(i);
+                writes.add(writers.submit(() -> {
+                    write(session, gitVersionedPomFile, gitVersionedPomModel);
+                    return null;
+                }));
+            }
+            IOException failure = null;
+            for (int i = 0; i < writes.size(); i++) {
+                try {
+                    writes.get(i).get();
+                } catch (ExecutionException | InterruptedException e) {
+                    IOException writeFailure = new IOException("Could not write " + gitVersionedPomFiles.get(i),
+                            e instanceof ExecutionException ? e.getCause() : e);
+                    if (failure == null) {
+                        failure = writeFailure;
+                    } else {
+                        failure.addSuppressed(writeFailure);
+                    }
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        for (int i = 0; i < projects.size(); i++) {
+            projects.get(i).setPomFile(gitVersionedPomFiles.get(i));
+        }
+    }
+
+    private static File gitVersionedPomFile(MavenProject project) {
+        return new File(project.getBuild().getDirectory(), GIT_VERSIONING_POM_NAME);
+    }
+
+    private static Model gitVersionedPomModel(MavenSession session, MavenProject project) throws IOException {
+        // read model from pom file because we dont want to apply any changes mady by plugins, except the version
+        File pomFile = project.getFile().getName().equals(GIT_VERSIONING_POM_NAME)
+                ? project.getModel().getPomFile() // git versioned pom file has been deleted since, e.g. by clean
+                : project.getFile();
+        Model pomFileModel = MavenUtil.readModel(session, pomFile).clone();
+        String parentVersion = null;
+        if (pomFileModel.getParent() != null && ProjectPoms.of(session).isProjectPom(project.getParent().getFile())) {
+            // parent version may differ from project version, if versioned per module
+            parentVersion = project.getParent().getVersion();
+            pomFileModel.getParent().setVersion(parentVersion);
+        }
+        if (pomFileModel.getVersion() != null || !project.getVersion().equals(parentVersion)) {
+            pomFileModel.setVersion(project.getVersion());
+        }
+        return pomFileModel;
+    }
+
+    private static void write(MavenSession session, File gitVersionedPomFile, Model gitVersionedPomModel) throws IOException {
+        Files.createDirectories(gitVersionedPomFile.getParentFile().toPath());
+        try (JfrEvents.Span span = JfrEvents.begin("pom.write", gitVersionedPomFile)) {
+            long writeStartNanos = System.nanoTime();
+            writeModel(gitVersionedPomFile, gitVersionedPomModel);
+            TimingsReport.timings(session).record("pom.write", System.nanoTime() - writeStartNanos);
+            span.bytesWritten(gitVersionedPomFile.length());
+        }
+    }
+}
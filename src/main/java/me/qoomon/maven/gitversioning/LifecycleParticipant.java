@@ -0,0 +1,127 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.Timings;
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.MavenExecutionException;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.logging.Logger;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Restricts print only sessions to the top level project and, if requested, sessions to changed modules.
+ * Generates git versioned pom files of all projects at once, if {@link GitVersionedPoms#BATCH_OPTION} is set.
+ * Exports resolved version details and reports extension {@link Timings} at the end of the session.
+ */
+@Component(role = AbstractMavenLifecycleParticipant.class, hint = "git-versioning")
+public class LifecycleParticipant extends AbstractMavenLifecycleParticipant {
+
+    private final Logger logger;
+
+    @Inject
+    public LifecycleParticipant(final Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void afterSessionStart(MavenSession session) {
+        if (PrintMojo.isPrintOnly(session.getGoals())
+                && !Boolean.parseBoolean(session.getUserProperties().getProperty(PrintMojo.REACTOR_PROPERTY))) {
+            logger.debug("print goal only - build top level project only");
+            session.getRequest().setRecursive(false);
+        }
+    }
+
+    @Override
+    public void afterProjectsRead(MavenSession session) throws MavenExecutionException {
+        selectChangedModules(session);
+        if (Boolean.parseBoolean(MavenUtil.getOption(session, GitVersionedPoms.BATCH_OPTION))
+                && !PrintMojo.isPrintOnly(session.getGoals())) {
+            writeGitVersionedPoms(session);
+        }
+    }
+
+    private void selectChangedModules(MavenSession session) {
+        List<File> changedModules = ChangedModules.registered(session);
+        if (changedModules == null || !Boolean.parseBoolean(MavenUtil.getOption(session, ChangedModules.ONLY_OPTION))) {
+            return;
+        }
+        List<MavenProject> projects = ChangedModules.select(
+                session.getProjects(), session.getProjectDependencyGraph(), changedModules);
+        if (projects.isEmpty()) {
+            // maven needs at least one project to build
+            logger.info("no changed modules - build top level project only");
+            projects = singletonList(session.getTopLevelProject());
+        } else {
+            logger.info("changed modules and their dependents only - build " + projects.size()
+                    + " of " + session.getProjects().size() + " projects");
+        }
+        session.setProjects(projects);
+    }
+
+    private void writeGitVersionedPoms(MavenSession session) throws MavenExecutionException {
+        String versioningPluginKey = VersioningMojo.asPlugin().getKey();
+        List<MavenProject> projects = session.getProjects().stream()
+                .filter(project -> project.getBuild().getPluginsAsMap().containsKey(versioningPluginKey))
+                .collect(toList());
+        if (projects.isEmpty()) {
+            return;
+        }
+        logger.info("Generating git versioned POMs of " + projects.size() + " projects...");
+        try {
+            GitVersionedPoms.replaceAll(session, projects);
+        } catch (IOException e) {
+            throw new MavenExecutionException("Could not generate git versioned POMs - " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void afterSessionEnd(MavenSession session) {
+        List<File> changedModules = ChangedModules.registered(session);
+        if (changedModules != null) {
+            File outputDirectory = MavenUtil.topLevelBuildDirectory(session);
+            MavenProject topLevelProject = MavenUtil.topLevelProject(session);
+            File baseDirectory = topLevelProject != null
+                    ? topLevelProject.getBasedir()
+                    : new File(session.getExecutionRootDirectory());
+            try {
+                ChangedModules.write(baseDirectory, changedModules, outputDirectory);
+            } catch (IOException e) {
+                logger.warn("Could not write changed modules to " + outputDirectory, e);
+            }
+        }
+
+        Map<String, Object> versionDetails = VersionDetailsExport.registered(session);
+        if (versionDetails != null) {
+            File outputDirectory = MavenUtil.topLevelBuildDirectory(session);
+            try {
+                VersionDetailsExport.write(versionDetails, outputDirectory);
+            } catch (IOException e) {
+                logger.warn("Could not write version details to " + outputDirectory, e);
+            }
+        }
+
+        Timings timings = TimingsReport.timings(session);
+        if (timings.isEmpty()) {
+            return;
+        }
+
+        File reportFile = TimingsReport.reportFile(session);
+        try {
+            TimingsReport.write(timings, reportFile);
+        } catch (IOException e) {
+            logger.warn("Could not write " + reportFile, e);
+        }
+        logger.info(BuildProperties.projectArtifactId() + " - " + TimingsReport.summary(timings)
+                + " (see " + reportFile + ")");
+    }
+}
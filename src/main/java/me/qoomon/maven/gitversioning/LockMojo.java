@@ -0,0 +1,43 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+
+/**
+ * Writes resolved git repository situation and version to <code>.mvn/git-versioning.lock</code>,
+ * to build without <code>.git</code> directory afterwards.
+ * <p>
+ * <code>mvn git-versioning-extension:lock</code>
+ */
+
+@Mojo(name = LockMojo.GOAL,
+        aggregator = true,
+        threadSafe = true)
+public class LockMojo extends AbstractMojo {
+
+    static final String GOAL = "lock";
+
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
+    @Override
+    public synchronized void execute() throws MojoExecutionException {
+        VersionLock versionLock = VersionLock.registered(session);
+        if (versionLock == null) {
+            throw new MojoExecutionException("No git versioning details available, "
+                    + BuildProperties.projectArtifactId() + " is not registered within .mvn/extensions.xml");
+        }
+        File lockFile = new File(new File(session.getRequest().getMultiModuleProjectDirectory(), ".mvn"), VersionLock.FILE_NAME);
+        try {
+            getLog().info("Writing version " + versionLock.getVersion() + " to " + lockFile.getPath());
+            versionLock.write(lockFile);
+        } catch (Exception e) {
+            throw new MojoExecutionException("Git Versioning Lock Mojo", e);
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package me.qoomon.maven.gitversioning;
 
+import me.qoomon.gitversioning.FileUtil;
+import me.qoomon.gitversioning.StringUtil;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
-import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.apache.maven.project.MavenProject;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Created by qoomon on 18/11/2016.
@@ -13,31 +19,84 @@ import java.io.*;
 final class MavenUtil {
 
     /**
-     * Read model from pom file
+     * Read model from pom file, pom files are parsed once per session, see {@link ModelCache}.
      *
+     * @param session maven session
      * @param pomFile pomFile
-     * @return Model
+     * @return shared Model, do not modify
      * @throws IOException IOException
      */
-    static Model readModel(File pomFile) throws IOException {
-        try (InputStream inputStream = new FileInputStream(pomFile)) {
-            return new MavenXpp3Reader().read(inputStream);
-        } catch (XmlPullParserException e) {
-            throw new RuntimeException(e);
-        }
+    static Model readModel(MavenSession session, File pomFile) throws IOException {
+        return ModelCache.of(session).read(pomFile);
     }
 
     /**
-     * Writes model to pom file
+     * Writes model to pom file.
+     * <p>
+     * The model is written to a temporary file next to <code>pomFile</code> first and moved into place afterwards,
+     * so readers never see a partially written pom file.
      *
      * @param pomFile pomFile
      * @param model   model
      * @throws IOException IOException
      */
     static void writeModel(File pomFile, Model model) throws IOException {
-        try (FileWriter fileWriter = new FileWriter(pomFile)) {
-            new MavenXpp3Writer().write(fileWriter, model);
+        // model encoding is not set, if model has been read from a character stream
+        Charset encoding = model.getModelEncoding() != null ? Charset.forName(model.getModelEncoding()) : UTF_8;
+        FileUtil.writeAtomically(pomFile.toPath(), encoding, writer -> new MavenXpp3Writer().write(writer, model));
+    }
+
+    /**
+     * Writes properties with sorted keys and without timestamp comment, so the content only changes if values change.
+     * <p>
+     * The properties are written to a temporary file next to <code>propertiesFile</code> first and moved into place afterwards.
+     *
+     * @param propertiesFile properties file
+     * @param properties     properties
+     * @throws IOException IOException
+     */
+    static void writeProperties(File propertiesFile, Properties properties) throws IOException {
+        String content = StringUtil.formatProperties(properties);
+        FileUtil.writeAtomically(propertiesFile.toPath(), UTF_8, writer -> writer.write(content));
+    }
+
+    /**
+     * @param session maven session
+     * @return build directory of the top level project
+     */
+    static File topLevelBuildDirectory(MavenSession session) {
+        MavenProject topLevelProject = topLevelProject(session);
+        return topLevelProject != null
+                ? new File(topLevelProject.getBuild().getDirectory())
+                : new File(session.getExecutionRootDirectory(), "target");
+    }
+
+    /**
+     * @param session maven session
+     * @return execution root project, even if session projects have been restricted, or null if there is none
+     */
+    static MavenProject topLevelProject(MavenSession session) {
+        if (session.getAllProjects() == null) {
+            return session.getTopLevelProject();
+        }
+        return session.getAllProjects().stream()
+                .filter(MavenProject::isExecutionRoot)
+                .findFirst()
+                .orElse(session.getTopLevelProject());
+    }
+
+    /**
+     * @param session maven session
+     * @param name    option name e.g. <code>git.branch</code>
+     * @return user property <code>name</code> or environment variable e.g. <code>VERSIONING_GIT_BRANCH</code>,
+     * null if neither is set
+     */
+    static String getOption(MavenSession session, String name) {
+        String value = session.getUserProperties().getProperty(name);
+        if (value == null) {
+            value = System.getenv("VERSIONING_" + name.replaceAll("\\.", "_").toUpperCase());
         }
+        return value;
     }
 
     /**
@@ -48,10 +107,9 @@ final class MavenUtil {
      */
     static boolean isProjectPom(File pomFile) {
         return pomFile != null
-                && pomFile.exists()
-                && pomFile.isFile()
                 // only project pom files ends in .xml, pom files from dependencies from repositories ends in .pom
-                && pomFile.getName().endsWith(".xml");
+                && pomFile.getName().endsWith(".xml")
+                && pomFile.isFile();
     }
 
 }
@@ -0,0 +1,94 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.eclipse.aether.SessionData;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Session scoped cache of parsed pom file models, keyed by canonical pom file path and last modified time.
+ * <p>
+ * The cache is stored within the repository session data and holds JDK and Maven model types only,
+ * so it can be shared between {@link ModelProcessor} and the mojos, even though they are loaded by different class realms.
+ * <p>
+ * Cached models are shared instances, callers that modify a model have to {@link Model#clone()} it first.
+ */
+final class ModelCache {
+
+    private static final String SESSION_DATA_KEY = ModelCache.class.getName();
+
+    private final ConcurrentMap<String, Map.Entry<Long, Model>> models;
+
+    ModelCache() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    private ModelCache(ConcurrentMap<String, Map.Entry<Long, Model>> models) {
+        this.models = models;
+    }
+
+    /**
+     * @param session maven session
+     * @return model cache of <code>session</code>
+     */
+    @SuppressWarnings("unchecked")
+    static ModelCache of(MavenSession session) {
+        SessionData sessionData = session.getRepositorySession().getData();
+        Object models = sessionData.get(SESSION_DATA_KEY);
+        if (models == null) {
+            sessionData.set(SESSION_DATA_KEY, null, new ConcurrentHashMap<>());
+            models = sessionData.get(SESSION_DATA_KEY);
+        }
+        return new ModelCache((ConcurrentMap<String, Map.Entry<Long, Model>>) models);
+    }
+
+    /**
+     * Read model from cache or from pom file, if pom file is not cached or has been modified since.
+     *
+     * @param pomFile pomFile
+     * @return shared Model, do not modify
+     * @throws IOException IOException
+     */
+    Model read(File pomFile) throws IOException {
+        String key = pomFile.getCanonicalPath();
+        long lastModified = pomFile.lastModified();
+        Map.Entry<Long, Model> entry = models.get(key);
+        if (entry != null && entry.getKey() == lastModified) {
+            return entry.getValue();
+        }
+
+        Model model = parseModel(pomFile);
+        model.setPomFile(pomFile);
+        models.put(key, new SimpleImmutableEntry<>(lastModified, model));
+        return model;
+    }
+
+    private static Model parseModel(File pomFile) throws IOException {
+        try (InputStream inputStream = new FileInputStream(pomFile)) {
+            return new MavenXpp3Reader().read(inputStream);
+        } catch (XmlPullParserException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Add already parsed model of <code>pomFile</code>.
+     *
+     * @param pomFile pomFile
+     * @param model   unmodified model parsed from <code>pomFile</code>
+     * @throws IOException IOException
+     */
+    void put(File pomFile, Model model) throws IOException {
+        models.put(pomFile.getCanonicalPath(), new SimpleImmutableEntry<>(pomFile.lastModified(), model));
+    }
+}
@@ -1,6 +1,5 @@
 package me.qoomon.maven.gitversioning;
 
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.google.inject.Key;
 import com.google.inject.OutOfScopeException;
 import me.qoomon.gitversioning.*;
@@ -17,17 +16,23 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
-import static java.util.Optional.ofNullable;
-import static java.util.stream.Collectors.toList;
 import static me.qoomon.UncheckedExceptions.unchecked;
 import static me.qoomon.maven.gitversioning.VersioningMojo.GIT_VERSIONING_POM_NAME;
-import static me.qoomon.maven.gitversioning.MavenUtil.isProjectPom;
-import static me.qoomon.maven.gitversioning.MavenUtil.readModel;
 
 
 /**
@@ -36,6 +41,8 @@ import static me.qoomon.maven.gitversioning.MavenUtil.readModel;
 @Component(role = org.apache.maven.model.building.ModelProcessor.class)
 public class ModelProcessor extends DefaultModelProcessor {
 
+    private static final int PREPARE_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
     private final Logger logger;
 
     private final SessionScope sessionScope;
@@ -44,10 +51,35 @@ public class ModelProcessor extends DefaultModelProcessor {
 
     private MavenSession mavenSession;  // can not be injected cause it is not always available
 
+    private ModelCache modelCache;
+
+    private ProjectPoms projectPoms;
+
+    private Timings timings;
+
+    private Configuration config;
+
+    private VersionDescription commitVersionDescription;
+
+    private List<VersionDescription> branchVersionDescriptions;
+
+    private List<VersionDescription> tagVersionDescriptions;
+
+    private GitRepoSituation repoSituation;
 
     private GitVersionDetails gitVersionDetails;
 
-    private final Map<String, Model> virtualProjectModelCache = new HashMap<>();
+    private Map<File, GitRepoSituation> moduleSituations; // per module versioning only
+
+    private String outputTimestampDirtyPolicy; // output timestamp option only
+
+    private long buildStartTime;
+
+    private final Map<File, GitVersionDetails> moduleVersionDetails = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Model> virtualProjectModelCache = new ConcurrentHashMap<>();
+
+    private final PreparedModels preparedModels = new PreparedModels();
 
 
     @Inject
@@ -58,18 +90,32 @@ public class ModelProcessor extends DefaultModelProcessor {
 
     @Override
     public Model read(File input, Map<String, ?> options) throws IOException {
+        final Model preparedModel = servePreparedModel(options);
+        if (preparedModel != null) {
+            return preparedModel;
+        }
         final Model projectModel = super.read(input, options);
         return processModel(projectModel, options);
     }
 
     @Override
     public Model read(Reader input, Map<String, ?> options) throws IOException {
+        final Model preparedModel = servePreparedModel(options);
+        if (preparedModel != null) {
+            input.close();
+            return preparedModel;
+        }
         final Model projectModel = super.read(input, options);
         return processModel(projectModel, options);
     }
 
     @Override
     public Model read(InputStream input, Map<String, ?> options) throws IOException {
+        final Model preparedModel = servePreparedModel(options);
+        if (preparedModel != null) {
+            input.close();
+            return preparedModel;
+        }
         final Model projectModel = super.read(input, options);
         return processModel(projectModel, options);
     }
@@ -82,6 +128,9 @@ public class ModelProcessor extends DefaultModelProcessor {
 
                 try {
                     mavenSession = sessionScope.scope(Key.get(MavenSession.class), null).get();
+                    modelCache = ModelCache.of(mavenSession);
+                    projectPoms = ProjectPoms.of(mavenSession);
+                    timings = TimingsReport.timings(mavenSession);
                 } catch (OutOfScopeException ex) {
                     mavenSession = null;
                 }
@@ -99,93 +148,259 @@ public class ModelProcessor extends DefaultModelProcessor {
                 projectModel.setPomFile(new File(pomSource.getLocation()));
             }
 
-            return processModel(projectModel);
+            try (JfrEvents.Span ignored = JfrEvents.begin("model.process", projectModel.getPomFile())) {
+                Map<String, ?> pomOptions = pomSource != null ? options : null;
+                return timings.measure("model.process", () -> unchecked(() -> processProjectModel(projectModel, pomOptions)));
+            }
         } catch (Exception e) {
             throw new IOException("Git Versioning Model Processor", e);
         }
     }
 
-    private Model processModel(Model projectModel) {
-        if (!isProjectPom(projectModel.getPomFile())) {
-            logger.debug("skip - unrelated pom location - " + projectModel.getPomFile());
-            return projectModel;
-        }
-
-        if (projectModel.getPomFile().getName().equals(GIT_VERSIONING_POM_NAME)) {
-            logger.debug("skip - git versioned pom - " + projectModel.getPomFile());
-            return projectModel;
-        }
-
-        GAV projectGav = GAV.of(projectModel);
-        if (projectGav.getVersion() == null) {
-            logger.debug("skip - invalid model - 'version' is missing - " + projectModel.getPomFile());
+    /**
+     * @param projectModel project model
+     * @param options      options of read, <code>null</code> if pom file location is unknown
+     */
+    private Model processProjectModel(Model projectModel, Map<String, ?> options) throws IOException {
+        String skipReason = skipReason(projectModel);
+        if (skipReason != null) {
+            logger.debug("skip - " + skipReason + " - " + projectModel.getPomFile());
             return projectModel;
         }
 
         if (gitVersionDetails == null) {
             gitVersionDetails = getGitVersionDetails(projectModel);
+            // modules are not read by non recursive sessions e.g. -N or print goal only
+            if (options != null && mavenSession.getRequest().isRecursive()) {
+                prepareModules(projectModel, options);
+            }
         }
 
         Model virtualProjectModel = this.virtualProjectModelCache.get(projectModel.getArtifactId());
         if (virtualProjectModel == null) {
-            logger.info(projectGav.getArtifactId() + " - set project version to " + gitVersionDetails.getVersion()
-                    + " (" + gitVersionDetails.getCommitRefType() + ":" + gitVersionDetails.getCommitRefName() + ")");
+            final Parent parent = projectModel.getParent();
+            if (parent != null && parent.getVersion() == null) {
+                logger.warn("skip - invalid model - parent 'version' is missing - " + projectModel.getPomFile());
+                return projectModel;
+            }
 
-            virtualProjectModel = projectModel.clone();
+            GitVersionDetails projectVersionDetails = getProjectVersionDetails(projectModel);
+            logProjectVersion(projectModel, projectVersionDetails);
+            virtualProjectModel = createVirtualProjectModel(projectModel, projectVersionDetails);
+            this.virtualProjectModelCache.put(projectModel.getArtifactId(), virtualProjectModel);
+        }
+        return virtualProjectModel;
+    }
 
-            // ---------------- process project -----------------------------------
+    /**
+     * @param projectModel project model
+     * @return reason to skip <code>projectModel</code> or <code>null</code>
+     */
+    private String skipReason(Model projectModel) {
+        if (!projectPoms.isProjectPom(projectModel.getPomFile())) {
+            return "unrelated pom location";
+        }
+        if (projectModel.getPomFile().getName().equals(GIT_VERSIONING_POM_NAME)) {
+            return "git versioned pom";
+        }
+        if (GAV.of(projectModel).getVersion() == null) {
+            return "invalid model - 'version' is missing";
+        }
+        return null;
+    }
 
-            if (projectModel.getVersion() != null) {
-                virtualProjectModel.setVersion(gitVersionDetails.getVersion());
-            }
+    private void logProjectVersion(Model projectModel, GitVersionDetails projectVersionDetails) {
+        logger.info(GAV.of(projectModel).getArtifactId() + " - set project version to " + projectVersionDetails.getVersion()
+                + " (" + projectVersionDetails.getCommitRefType() + ":" + projectVersionDetails.getCommitRefName() + ")");
+    }
 
-            virtualProjectModel.addProperty("git.commit", gitVersionDetails.getCommit());
-            virtualProjectModel.addProperty("git.ref", gitVersionDetails.getCommitRefName());
-            virtualProjectModel.addProperty("git." + gitVersionDetails.getCommitRefType(), gitVersionDetails.getCommitRefName());
-            for (Map.Entry<String, String> entry : gitVersionDetails.getMetaData().entrySet()) {
-                virtualProjectModel.addProperty("git.ref." + entry.getKey(), entry.getValue());
-            }
+    private Model createVirtualProjectModel(Model projectModel, GitVersionDetails projectVersionDetails) throws IOException {
+        Model virtualProjectModel = projectModel.clone();
 
-            // ---------------- process parent -----------------------------------
+        // ---------------- process project -----------------------------------
 
-            final Parent parent = projectModel.getParent();
-            if (parent != null) {
+        if (projectModel.getVersion() != null) {
+            virtualProjectModel.setVersion(projectVersionDetails.getVersion());
+        }
 
-                if (parent.getVersion() == null) {
-                    logger.warn("skip - invalid model - parent 'version' is missing - " + projectModel.getPomFile());
-                    return projectModel;
-                }
+        virtualProjectModel.addProperty("git.commit", projectVersionDetails.getCommit());
+        virtualProjectModel.addProperty("git.ref", projectVersionDetails.getCommitRefName());
+        virtualProjectModel.addProperty("git." + projectVersionDetails.getCommitRefType(), projectVersionDetails.getCommitRefName());
+        for (Map.Entry<String, String> entry : projectVersionDetails.getMetaData().entrySet()) {
+            virtualProjectModel.addProperty("git.ref." + entry.getKey(), entry.getValue());
+        }
+        if (projectVersionDetails.getCommitTime() > 0) {
+            virtualProjectModel.addProperty("git.commit.timestamp", OutputTimestamp.format(projectVersionDetails.getCommitTime()));
+        }
+        if (outputTimestampDirtyPolicy != null) {
+            String outputTimestamp = OutputTimestamp.of(projectVersionDetails, outputTimestampDirtyPolicy, buildStartTime);
+            if (outputTimestamp != null) {
+                virtualProjectModel.addProperty(OutputTimestamp.PROPERTY, outputTimestamp);
+            }
+        }
+
+        // ---------------- process parent -----------------------------------
 
-                File parentPomFile = getParentPom(projectModel);
-                if (isProjectPom(parentPomFile)) {
-                    if (projectModel.getVersion() != null) {
-                        virtualProjectModel.setVersion(null);
-                        logger.warn("Do not set version tag in a multi module project module: " + projectModel.getPomFile());
-                        if (!projectModel.getVersion().equals(parent.getVersion())) {
-                            throw new IllegalStateException("'version' has to be equal to parent 'version'");
-                        }
+        final Parent parent = projectModel.getParent();
+        if (parent != null) {
+            File parentPomFile = getParentPom(projectModel);
+            if (projectPoms.isProjectPom(parentPomFile)) {
+                if (projectModel.getVersion() != null) {
+                    virtualProjectModel.setVersion(null);
+                    logger.warn("Do not set version tag in a multi module project module: " + projectModel.getPomFile());
+                    if (!projectModel.getVersion().equals(parent.getVersion())) {
+                        throw new IllegalStateException("'version' has to be equal to parent 'version'");
                     }
+                }
 
-                    virtualProjectModel.getParent().setVersion(gitVersionDetails.getVersion());
+                String parentVersion = moduleSituations == null
+                        ? gitVersionDetails.getVersion()
+                        : getProjectVersionDetails(modelCache.read(parentPomFile)).getVersion();
+                if (!projectVersionDetails.getVersion().equals(parentVersion)) {
+                    // per module versioning, module version differs from inherited parent version
+                    virtualProjectModel.setVersion(projectVersionDetails.getVersion());
                 }
+                virtualProjectModel.getParent().setVersion(parentVersion);
             }
+        }
 
-            // ---------------- add plugin ---------------------------------------
+        // ---------------- add plugin ---------------------------------------
 
-            addBuildPlugin(virtualProjectModel); // has to be removed from model by plugin itself
+        addBuildPlugin(virtualProjectModel); // has to be removed from model by plugin itself
 
-            this.virtualProjectModelCache.put(projectModel.getArtifactId(), virtualProjectModel);
-        }
+        modelCache.put(projectModel.getPomFile(), projectModel);
         return virtualProjectModel;
     }
 
+    /**
+     * @param options options of read
+     * @return prepared virtual project model of pom file of <code>options</code> or <code>null</code>, if there is none
+     */
+    private Model servePreparedModel(Map<String, ?> options) {
+        PreparedModels.PreparedModel preparedModel = preparedModels.get(options);
+        if (preparedModel == null) {
+            return null;
+        }
+        Model projectModel = preparedModel.getProjectModel();
+        Model virtualProjectModel = virtualProjectModelCache.putIfAbsent(projectModel.getArtifactId(),
+                preparedModel.getVirtualProjectModel());
+        if (virtualProjectModel != null) {
+            return virtualProjectModel;
+        }
+        try {
+            logProjectVersion(projectModel, getProjectVersionDetails(projectModel));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return preparedModel.getVirtualProjectModel();
+    }
+
+    /**
+     * Prepare virtual project models of all modules of <code>projectModel</code>, recursively and in parallel,
+     * so following reads of module pom files are served from {@link #preparedModels}.
+     * <p>
+     * Modules, that can not be prepared, are skipped and processed on read as usual, so errors are reported by maven.
+     *
+     * @param projectModel top level project model
+     * @param options      options of read of <code>projectModel</code>
+     */
+    private void prepareModules(Model projectModel, Map<String, ?> options) {
+        if (projectModel.getModules().isEmpty()) {
+            return;
+        }
+        Set<String> pomFiles = ConcurrentHashMap.newKeySet();
+        pomFiles.add(projectModel.getPomFile().getPath());
+        ForkJoinPool pool = new ForkJoinPool(PREPARE_PARALLELISM);
+        try (JfrEvents.Span ignored = JfrEvents.begin("model.prepare", projectModel.getPomFile())) {
+            timings.measure("model.prepare", () -> pool.invoke(ForkJoinTask.adapt(() ->
+                    ForkJoinTask.invokeAll(modulePreparations(projectModel, options, pomFiles)))));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<ModulePreparation> modulePreparations(Model projectModel, Map<String, ?> options, Set<String> pomFiles) {
+        List<ModulePreparation> preparations = new ArrayList<>();
+        for (String module : projectModel.getModules()) {
+            File modulePomFile = new File(projectModel.getProjectDirectory(), module);
+            if (modulePomFile.isDirectory()) {
+                modulePomFile = locatePom(modulePomFile);
+            }
+            if (projectPoms.isProjectPom(modulePomFile) && pomFiles.add(modulePomFile.getPath())) {
+                preparations.add(new ModulePreparation(modulePomFile, options, pomFiles));
+            }
+        }
+        return preparations;
+    }
+
+    /**
+     * @param pomFile pom file
+     * @param options options of read of top level project model
+     * @return unmodified model of <code>pomFile</code> or <code>null</code>, if it can not be read
+     */
+    private Model prepareModel(File pomFile, Map<String, ?> options) {
+        long lastModified = pomFile.lastModified();
+        Map<String, Object> readOptions = PreparedModels.readOptions(pomFile, options);
+        Model projectModel;
+        try {
+            projectModel = super.read(pomFile, readOptions);
+        } catch (Exception e) {
+            logger.debug("skip preparation - " + pomFile + " - " + e);
+            return null;
+        }
+
+        final Parent parent = projectModel.getParent();
+        if (skipReason(projectModel) == null && (parent == null || parent.getVersion() != null)) {
+            try {
+                Model virtualProjectModel = createVirtualProjectModel(projectModel, getProjectVersionDetails(projectModel));
+                preparedModels.put(pomFile, lastModified, readOptions, projectModel, virtualProjectModel);
+            } catch (Exception e) {
+                logger.debug("skip preparation - " + pomFile + " - " + e);
+            }
+        }
+        return projectModel;
+    }
+
+    private final class ModulePreparation extends RecursiveAction {
+
+        private final File pomFile;
+        private final Map<String, ?> options;
+        private final Set<String> pomFiles;
+
+        ModulePreparation(File pomFile, Map<String, ?> options, Set<String> pomFiles) {
+            this.pomFile = pomFile;
+            this.options = options;
+            this.pomFiles = pomFiles;
+        }
 
-    private GitVersionDetails getGitVersionDetails(Model projectModel) {
+        @Override
+        protected void compute() {
+            Model projectModel = prepareModel(pomFile, options);
+            if (projectModel != null) {
+                invokeAll(modulePreparations(projectModel, options, pomFiles));
+            }
+        }
+    }
+
+    private GitVersionDetails getGitVersionDetails(Model projectModel) throws IOException {
         File mvnDir = findMvnDir(projectModel);
         File configFile = new File(mvnDir, BuildProperties.projectArtifactId() + ".xml");
-        Configuration config = loadConfig(configFile);
-
-        GitRepoSituation repoSituation = GitUtil.situation(projectModel.getPomFile());
+        config = timings.measure("config.load", () -> loadConfig(configFile));
+        // created once, so patterns are compiled once for all modules
+        commitVersionDescription = config.commitVersionDescription();
+        branchVersionDescriptions = config.branchVersionDescriptions();
+        tagVersionDescriptions = config.tagVersionDescriptions();
+
+        File lockFile = new File(mvnDir, VersionLock.FILE_NAME);
+        VersionLock versionLock = null;
+        if (mvnDir != null && lockFile.isFile() && !GitUtil.isRepository(projectModel.getPomFile())) {
+            logger.info("use version lock file " + lockFile + " - no git repository present");
+            versionLock = unchecked(() -> VersionLock.read(lockFile));
+            repoSituation = versionLock.getRepoSituation();
+        } else {
+            repoSituation = GitUtil.situation(projectModel.getPomFile(), timings,
+                    config.describeTagPatterns(), config.branchRefPatterns());
+        }
         String providedBranch = getOption("git.branch");
         if (providedBranch != null) {
             repoSituation.setHeadBranch(providedBranch.isEmpty() ? null : providedBranch);
@@ -195,44 +410,135 @@ public class ModelProcessor extends DefaultModelProcessor {
             repoSituation.setHeadTags(providedTag.isEmpty() ? emptyList() : singletonList(providedTag));
         }
 
+        if (Boolean.parseBoolean(getOption(OutputTimestamp.OPTION))) {
+            outputTimestampDirtyPolicy = OutputTimestamp.dirtyPolicy(getOption(OutputTimestamp.DIRTY_OPTION));
+            Date startTime = mavenSession.getRequest().getStartTime();
+            buildStartTime = (startTime != null ? startTime.getTime() : System.currentTimeMillis()) / 1000;
+        }
+
+        GitVersionDetails versionDetails = determineVersion(repoSituation, GAV.of(projectModel).getVersion());
+
+        if (versionLock != null && !versionLock.getVersion().equals(versionDetails.getVersion())) {
+            logger.warn("version " + versionDetails.getVersion() + " differs from locked version " + versionLock.getVersion()
+                    + ", consider to update version lock file " + lockFile);
+        }
+        new VersionLock(repoSituation, versionDetails.getVersion()).register(mavenSession);
+        VersionDetailsExport.register(mavenSession, versionDetails);
+
+        if (config.perModule) {
+            if (versionLock != null) {
+                logger.warn("per module versioning needs git history - use version of HEAD for all modules");
+            } else {
+                moduleSituations = new ConcurrentHashMap<>(GitUtil.moduleSituations(projectModel.getPomFile(), repoSituation,
+                        getModuleDirectories(projectModel), config.describeTagPatterns(), timings));
+            }
+        }
+
+        String changedSince = getOption(ChangedModules.SINCE_OPTION);
+        if (changedSince != null && !changedSince.isEmpty()) {
+            if (versionLock != null) {
+                logger.warn("changed module detection needs git history - skip " + ChangedModules.SINCE_OPTION);
+            } else {
+                Set<File> changedModules = GitUtil.changedModules(projectModel.getPomFile(), changedSince,
+                        getModuleDirectories(projectModel), timings);
+                String changedModulePaths = ChangedModules.format(projectModel.getProjectDirectory(), changedModules);
+                logger.info("changed modules since " + changedSince + ": "
+                        + (changedModulePaths.isEmpty() ? "none" : changedModulePaths));
+                mavenSession.getUserProperties().setProperty(ChangedModules.PROPERTY, changedModulePaths);
+                ChangedModules.register(mavenSession, changedModules);
+            }
+        }
+        return versionDetails;
+    }
+
+    private GitVersionDetails determineVersion(GitRepoSituation repoSituation, String currentVersion) {
         return GitVersioning.determineVersion(repoSituation,
-                ofNullable(config.commit)
-                        .map(it -> new VersionDescription(null, it.versionFormat))
-                        .orElse(new VersionDescription()),
-                config.branch.stream()
-                        .map(it -> new VersionDescription(it.pattern, it.versionFormat))
-                        .collect(toList()),
-                config.tag.stream()
-                        .map(it -> new VersionDescription(it.pattern, it.versionFormat))
-                        .collect(toList()),
-                GAV.of(projectModel).getVersion());
+                commitVersionDescription, branchVersionDescriptions, tagVersionDescriptions,
+                currentVersion, config.commitAbbrevMinLength);
+    }
+
+    /**
+     * @param projectModel project model
+     * @return version details of project directory, if per module versioning is enabled, otherwise of HEAD
+     */
+    private GitVersionDetails getProjectVersionDetails(Model projectModel) throws IOException {
+        if (moduleSituations == null) {
+            return gitVersionDetails;
+        }
+        File projectDirectory = projectModel.getProjectDirectory().getCanonicalFile();
+        GitVersionDetails projectVersionDetails = moduleVersionDetails.get(projectDirectory);
+        if (projectVersionDetails == null) {
+            GitRepoSituation projectSituation = moduleSituations.get(projectDirectory);
+            if (projectSituation == null) {
+                // not reachable by modules of the first project e.g. module of a profile
+                projectSituation = GitUtil.moduleSituations(projectModel.getPomFile(), repoSituation,
+                        singletonList(projectDirectory), config.describeTagPatterns(), timings).get(projectDirectory);
+                moduleSituations.put(projectDirectory, projectSituation);
+            }
+            projectVersionDetails = determineVersion(projectSituation, GAV.of(projectModel).getVersion());
+            moduleVersionDetails.put(projectDirectory, projectVersionDetails);
+        }
+        return projectVersionDetails;
+    }
+
+    /**
+     * @param projectModel top level project model
+     * @return directories of <code>projectModel</code> and its modules, recursively
+     */
+    private Set<File> getModuleDirectories(Model projectModel) throws IOException {
+        Set<File> moduleDirectories = new LinkedHashSet<>();
+        collectModuleDirectories(projectModel, moduleDirectories);
+        return moduleDirectories;
+    }
+
+    private void collectModuleDirectories(Model projectModel, Set<File> moduleDirectories) throws IOException {
+        File projectDirectory = projectModel.getProjectDirectory().getCanonicalFile();
+        if (!moduleDirectories.add(projectDirectory)) {
+            return;
+        }
+        for (String module : projectModel.getModules()) {
+            File modulePomFile = new File(projectDirectory, module);
+            if (modulePomFile.isDirectory()) {
+                modulePomFile = new File(modulePomFile, "pom.xml");
+            }
+            if (projectPoms.isProjectPom(modulePomFile)) {
+                collectModuleDirectories(modelCache.read(modulePomFile), moduleDirectories);
+            }
+        }
     }
 
     private File getParentPom(Model projectModel) {
-        if (projectModel.getParent() == null) {
+        return getParentPom(projectModel.getProjectDirectory(), projectModel.getParent());
+    }
+
+    private File getParentPom(File projectDirectory, Parent parent) {
+        if (parent == null) {
             return null;
         }
 
-        File parentRelativePath = new File(projectModel.getParent().getRelativePath());
-        if (parentRelativePath.isDirectory()) {
-            parentRelativePath = new File(parentRelativePath, "pom.xml");
+        File parentPomFile = new File(projectDirectory, parent.getRelativePath());
+        if (parentPomFile.isDirectory()) {
+            parentPomFile = new File(parentPomFile, "pom.xml");
         }
-        return new File(projectModel.getProjectDirectory(), parentRelativePath.getPath());
+        return parentPomFile;
     }
 
     private File findMvnDir(Model projectModel) {
-        File mvnDir = new File(projectModel.getProjectDirectory(), ".mvn");
+        return findMvnDir(projectModel.getProjectDirectory(), projectModel.getParent());
+    }
+
+    private File findMvnDir(File projectDirectory, Parent parent) {
+        File mvnDir = new File(projectDirectory, ".mvn");
         if (mvnDir.exists()) {
             return mvnDir;
         }
 
-        if (projectModel.getParent() != null) {
-            File parentPomFile = getParentPom(projectModel);
-            if (isProjectPom(parentPomFile)) {
+        if (parent != null) {
+            File parentPomFile = getParentPom(projectDirectory, parent);
+            if (projectPoms.isProjectPom(parentPomFile)) {
                 try {
-                    Model parentProjectModel = readModel(parentPomFile);
-                    parentProjectModel.setPomFile(parentPomFile);
-                    return findMvnDir(parentProjectModel);
+                    Model parentProjectModel = modelCache.read(parentPomFile);
+                    return findMvnDir(parentPomFile.getParentFile(), parentProjectModel.getParent());
                 } catch (IOException e) {
                     return null;
                 }
@@ -269,11 +575,7 @@ public class ModelProcessor extends DefaultModelProcessor {
 
 
     private String getOption(final String name) {
-        String value = mavenSession.getUserProperties().getProperty(name);
-        if (value == null) {
-            value = System.getenv("VERSIONING_" + name.replaceAll("\\.", "_").toUpperCase());
-        }
-        return value;
+        return MavenUtil.getOption(mavenSession, name);
     }
 
 
@@ -282,6 +584,6 @@ public class ModelProcessor extends DefaultModelProcessor {
             return new Configuration();
         }
         logger.debug("load config from " + configFile);
-        return unchecked(() -> new XmlMapper().readValue(configFile, Configuration.class));
+        return unchecked(() -> ConfigurationReader.read(configFile));
     }
 }
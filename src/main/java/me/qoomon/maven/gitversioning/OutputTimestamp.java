@@ -0,0 +1,77 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.GitVersionDetails;
+
+import java.time.Instant;
+
+/**
+ * Reproducible build timestamp, see <code>project.build.outputTimestamp</code>, derived from the commit time
+ * of a project, so builds of the same commit produce identical artifacts.
+ * <p>
+ * Artifacts of a dirty working tree do not match the commit, they are handled by a {@link #DIRTY_OPTION} policy.
+ */
+final class OutputTimestamp {
+
+    static final String PROPERTY = "project.build.outputTimestamp";
+    static final String OPTION = "git.outputTimestamp";
+    static final String DIRTY_OPTION = "git.outputTimestampDirty";
+
+    /**
+     * use commit time anyway
+     */
+    static final String DIRTY_COMMIT = "commit";
+    /**
+     * use build start time
+     */
+    static final String DIRTY_NOW = "now";
+    /**
+     * do not set output timestamp, keep value of pom file, if any
+     */
+    static final String DIRTY_SKIP = "skip";
+
+    private OutputTimestamp() {
+    }
+
+    /**
+     * @param value option value, null for default
+     * @return dirty policy
+     * @throws IllegalArgumentException if <code>value</code> is no dirty policy
+     */
+    static String dirtyPolicy(String value) {
+        if (value == null || value.isEmpty()) {
+            return DIRTY_NOW;
+        }
+        if (!value.equals(DIRTY_COMMIT) && !value.equals(DIRTY_NOW) && !value.equals(DIRTY_SKIP)) {
+            throw new IllegalArgumentException("invalid " + DIRTY_OPTION + " '" + value + "', expected "
+                    + DIRTY_COMMIT + ", " + DIRTY_NOW + " or " + DIRTY_SKIP);
+        }
+        return value;
+    }
+
+    /**
+     * @param versionDetails version details of project
+     * @param dirtyPolicy    dirty policy, see {@link #dirtyPolicy(String)}
+     * @param buildStartTime build start time in seconds since epoch
+     * @return output timestamp or null, if there is no commit time or it should not be set due to <code>dirtyPolicy</code>
+     */
+    static String of(GitVersionDetails versionDetails, String dirtyPolicy, long buildStartTime) {
+        long time = versionDetails.getCommitTime();
+        if (!versionDetails.isClean()) {
+            if (dirtyPolicy.equals(DIRTY_SKIP)) {
+                return null;
+            }
+            if (dirtyPolicy.equals(DIRTY_NOW)) {
+                time = buildStartTime;
+            }
+        }
+        return time > 0 ? format(time) : null;
+    }
+
+    /**
+     * @param time time in seconds since epoch
+     * @return ISO-8601 UTC timestamp e.g. <code>2020-01-01T00:00:00Z</code>
+     */
+    static String format(long time) {
+        return Instant.ofEpochSecond(time).toString();
+    }
+}
@@ -0,0 +1,132 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.building.Source;
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.building.FileModelSource;
+import org.apache.maven.model.io.ModelReader;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Project models, that have been processed ahead of maven reading their pom files, keyed by pom file location.
+ * <p>
+ * Models are parsed with the same options as maven uses for the actual read. Maven tracks input locations by an
+ * {@link InputSource} per read, which gets its model id after the read. Input locations of prepared models refer to a
+ * {@link LinkedInputSource} instead, which is linked to the input source of the read, that is served first.
+ */
+final class PreparedModels {
+
+    private final ConcurrentMap<String, PreparedModel> models = new ConcurrentHashMap<>();
+
+    /**
+     * @param pomFile pom file
+     * @param options options of a read by maven
+     * @return options to read <code>pomFile</code> the same way
+     */
+    static Map<String, Object> readOptions(File pomFile, Map<String, ?> options) {
+        Map<String, Object> readOptions = new HashMap<>();
+        readOptions.put(ModelReader.IS_STRICT, options.get(ModelReader.IS_STRICT));
+        readOptions.put(org.apache.maven.model.building.ModelProcessor.SOURCE, new FileModelSource(pomFile));
+        if (options.get(ModelReader.INPUT_SOURCE) != null) {
+            LinkedInputSource inputSource = new LinkedInputSource();
+            inputSource.setLocation(pomFile.getPath());
+            readOptions.put(ModelReader.INPUT_SOURCE, inputSource);
+        }
+        return readOptions;
+    }
+
+    /**
+     * @param pomFile             pom file
+     * @param lastModified        last modified time of <code>pomFile</code> before it has been read
+     * @param readOptions         options <code>pomFile</code> has been read with, see {@link #readOptions(File, Map)}
+     * @param projectModel        unmodified model parsed from <code>pomFile</code>
+     * @param virtualProjectModel processed model
+     */
+    void put(File pomFile, long lastModified, Map<String, ?> readOptions, Model projectModel, Model virtualProjectModel) {
+        models.put(pomFile.getPath(), new PreparedModel(lastModified,
+                readOptions.get(ModelReader.IS_STRICT),
+                (LinkedInputSource) readOptions.get(ModelReader.INPUT_SOURCE),
+                projectModel, virtualProjectModel));
+    }
+
+    /**
+     * @param options options of a read by maven
+     * @return prepared model of pom file of <code>options</code> or <code>null</code>,
+     * if there is none, pom file has been modified since or it has been read with different options
+     */
+    PreparedModel get(Map<String, ?> options) {
+        Source source = (Source) options.get(org.apache.maven.model.building.ModelProcessor.SOURCE);
+        if (source == null) {
+            return null;
+        }
+        PreparedModel model = models.get(source.getLocation());
+        if (model == null
+                || !Objects.equals(model.strict, options.get(ModelReader.IS_STRICT))
+                || (model.inputSource == null) != (options.get(ModelReader.INPUT_SOURCE) == null)
+                || model.lastModified != new File(source.getLocation()).lastModified()) {
+            return null;
+        }
+        if (model.inputSource != null) {
+            model.inputSource.link((InputSource) options.get(ModelReader.INPUT_SOURCE));
+        }
+        return model;
+    }
+
+    static final class PreparedModel {
+
+        private final long lastModified;
+        private final Object strict;
+        private final LinkedInputSource inputSource;
+        private final Model projectModel;
+        private final Model virtualProjectModel;
+
+        private PreparedModel(long lastModified, Object strict, LinkedInputSource inputSource,
+                              Model projectModel, Model virtualProjectModel) {
+            this.lastModified = lastModified;
+            this.strict = strict;
+            this.inputSource = inputSource;
+            this.projectModel = projectModel;
+            this.virtualProjectModel = virtualProjectModel;
+        }
+
+        Model getProjectModel() {
+            return projectModel;
+        }
+
+        Model getVirtualProjectModel() {
+            return virtualProjectModel;
+        }
+    }
+
+    /**
+     * Input source, that takes location and model id from the first input source it has been linked to.
+     */
+    static final class LinkedInputSource extends InputSource {
+
+        private volatile InputSource source;
+
+        void link(InputSource source) {
+            if (this.source == null) {
+                this.source = source;
+            }
+        }
+
+        @Override
+        public String getLocation() {
+            InputSource source = this.source;
+            return source != null ? source.getLocation() : super.getLocation();
+        }
+
+        @Override
+        public String getModelId() {
+            InputSource source = this.source;
+            return source != null ? source.getModelId() : super.getModelId();
+        }
+    }
+}
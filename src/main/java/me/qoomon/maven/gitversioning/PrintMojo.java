@@ -0,0 +1,132 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import me.qoomon.gitversioning.StringUtil;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Prints project version and <code>git.*</code> properties to stdout.
+ * <p>
+ * <code>mvn git-versioning-extension:print -q</code>
+ * <p>
+ * Unless <code>print.reactor</code> is set, {@link LifecycleParticipant} restricts the session to the top level project,
+ * so reactor modules are not built at all.
+ */
+
+@Mojo(name = PrintMojo.GOAL,
+        aggregator = true,
+        threadSafe = true)
+public class PrintMojo extends AbstractMojo {
+
+    static final String GOAL = "print";
+    static final String GOAL_PREFIX = "git-versioning-extension";
+    static final String REACTOR_PROPERTY = "print.reactor";
+
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
+    /**
+     * <code>version</code>, <code>properties</code> or <code>json</code>
+     */
+    @Parameter(property = "print.format", defaultValue = "properties")
+    private String format;
+
+    /**
+     * print all reactor projects instead of top level project only
+     */
+    @Parameter(property = REACTOR_PROPERTY, defaultValue = "false")
+    private boolean reactor;
+
+    @Override
+    public synchronized void execute() throws MojoExecutionException {
+        List<MavenProject> projects = reactor ? session.getProjects() : singletonList(session.getTopLevelProject());
+        String output;
+        try {
+            switch (format) {
+                case "version":
+                    output = projects.stream()
+                            .map(project -> reactor
+                                    ? project.getGroupId() + ":" + project.getArtifactId() + ":" + project.getVersion()
+                                    : project.getVersion())
+                            .collect(joining("\n"));
+                    break;
+                case "properties":
+                    Properties properties = new Properties();
+                    for (MavenProject project : projects) {
+                        String keyPrefix = reactor ? project.getArtifactId() + "." : "";
+                        versionProperties(project).forEach((key, value) -> properties.setProperty(keyPrefix + key, value));
+                    }
+                    output = StringUtil.formatProperties(properties).trim();
+                    break;
+                case "json":
+                    ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+                    output = reactor
+                            ? objectMapper.writeValueAsString(projects.stream().map(PrintMojo::reactorProject).collect(toList()))
+                            : objectMapper.writeValueAsString(versionProperties(projects.get(0)));
+                    break;
+                default:
+                    throw new MojoExecutionException("Unknown print.format '" + format + "', expected version, properties or json");
+            }
+        } catch (MojoExecutionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MojoExecutionException("Git Versioning Print Mojo", e);
+        }
+        System.out.println(output);
+    }
+
+    /**
+     * @param goals session goals
+     * @return true if <code>goals</code> consists of print goals only
+     */
+    static boolean isPrintOnly(List<String> goals) {
+        return !goals.isEmpty() && goals.stream().allMatch(PrintMojo::isPrintGoal);
+    }
+
+    private static boolean isPrintGoal(String goal) {
+        // prefix:goal or groupId:artifactId[:version]:goal
+        String[] segments = goal.split(":");
+        if (segments.length < 2 || !segments[segments.length - 1].equals(GOAL)) {
+            return false;
+        }
+        return segments.length == 2
+                ? segments[0].equals(GOAL_PREFIX)
+                : segments[1].equals(BuildProperties.projectArtifactId());
+    }
+
+    private static Map<String, String> versionProperties(MavenProject project) {
+        Map<String, String> properties = new TreeMap<>();
+        project.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("git."))
+                .forEach(name -> properties.put(name, project.getProperties().getProperty(name)));
+        Map<String, String> versionProperties = new LinkedHashMap<>();
+        versionProperties.put("version", project.getVersion());
+        versionProperties.putAll(properties);
+        return versionProperties;
+    }
+
+    private static Map<String, Object> reactorProject(MavenProject project) {
+        Map<String, Object> reactorProject = new LinkedHashMap<>();
+        reactorProject.put("groupId", project.getGroupId());
+        reactorProject.put("artifactId", project.getArtifactId());
+        reactorProject.put("version", project.getVersion());
+        reactorProject.put("properties", versionProperties(project));
+        return reactorProject;
+    }
+}
@@ -0,0 +1,79 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.SessionData;
+import org.eclipse.aether.repository.LocalRepository;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static me.qoomon.maven.gitversioning.VersioningMojo.GIT_VERSIONING_POM_NAME;
+
+/**
+ * Session scoped classification of pom files, see {@link MavenUtil#isProjectPom(File)}.
+ * <p>
+ * Maven reads a model for every dependency of the build, so classification rejects pom files by name and by
+ * local repository location first, without touching the file system.
+ * The file system check of the remaining pom files is cached by pom file path.
+ * <p>
+ * The cache is stored within the repository session data and holds JDK types only,
+ * so it can be shared between {@link ModelProcessor} and the mojos, even though they are loaded by different class realms.
+ */
+final class ProjectPoms {
+
+    private static final String SESSION_DATA_KEY = ProjectPoms.class.getName();
+
+    private final String localRepositoryPath;
+
+    private final ConcurrentMap<String, Boolean> projectPoms;
+
+    ProjectPoms(File localRepositoryDirectory) {
+        this(localRepositoryDirectory, new ConcurrentHashMap<>());
+    }
+
+    private ProjectPoms(File localRepositoryDirectory, ConcurrentMap<String, Boolean> projectPoms) {
+        this.localRepositoryPath = localRepositoryDirectory != null
+                ? localRepositoryDirectory.getAbsolutePath() + File.separator
+                : null;
+        this.projectPoms = projectPoms;
+    }
+
+    /**
+     * @param session maven session
+     * @return project pom classification of <code>session</code>
+     */
+    @SuppressWarnings("unchecked")
+    static ProjectPoms of(MavenSession session) {
+        SessionData sessionData = session.getRepositorySession().getData();
+        Object projectPoms = sessionData.get(SESSION_DATA_KEY);
+        if (projectPoms == null) {
+            sessionData.set(SESSION_DATA_KEY, null, new ConcurrentHashMap<>());
+            projectPoms = sessionData.get(SESSION_DATA_KEY);
+        }
+        LocalRepository localRepository = session.getRepositorySession().getLocalRepository();
+        return new ProjectPoms(localRepository != null ? localRepository.getBasedir() : null,
+                (ConcurrentMap<String, Boolean>) projectPoms);
+    }
+
+    /**
+     * checks if <code>pomFile</code> is part of a project
+     *
+     * @param pomFile the pom file
+     * @return true if <code>pomFile</code> is part of a project
+     */
+    boolean isProjectPom(File pomFile) {
+        if (pomFile == null || !pomFile.getName().endsWith(".xml")) {
+            return false;
+        }
+        String pomFilePath = pomFile.getAbsolutePath();
+        if (localRepositoryPath != null && pomFilePath.startsWith(localRepositoryPath)) {
+            return false;
+        }
+        if (pomFile.getName().equals(GIT_VERSIONING_POM_NAME)) {
+            // git versioned pom files are generated and deleted during the build
+            return MavenUtil.isProjectPom(pomFile);
+        }
+        return projectPoms.computeIfAbsent(pomFilePath, path -> MavenUtil.isProjectPom(pomFile));
+    }
+}
@@ -0,0 +1,92 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import me.qoomon.gitversioning.Timings;
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.SessionData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Session scoped extension {@link Timings} and their report.
+ * <p>
+ * Timings are stored within the repository session data, so durations recorded by the mojos end up in the same report.
+ */
+final class TimingsReport {
+
+    static final String REPORT_FILE_NAME = "git-versioning-metrics.json";
+
+    private static final String SESSION_DATA_KEY = TimingsReport.class.getName();
+
+    private TimingsReport() {
+    }
+
+    /**
+     * @param session maven session
+     * @return timings of <code>session</code>
+     */
+    @SuppressWarnings("unchecked")
+    static Timings timings(MavenSession session) {
+        SessionData sessionData = session.getRepositorySession().getData();
+        Object durations = sessionData.get(SESSION_DATA_KEY);
+        if (durations == null) {
+            sessionData.set(SESSION_DATA_KEY, null, new ConcurrentHashMap<>());
+            durations = sessionData.get(SESSION_DATA_KEY);
+        }
+        return new Timings((ConcurrentMap<String, Queue<Long>>) durations);
+    }
+
+    /**
+     * @param session maven session
+     * @return report file within the build directory of the top level project
+     */
+    static File reportFile(MavenSession session) {
+        return new File(MavenUtil.topLevelBuildDirectory(session), REPORT_FILE_NAME);
+    }
+
+    static void write(Timings timings, File reportFile) throws IOException {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        timings.statistics().forEach((phase, statistics) -> {
+            Map<String, Object> phaseReport = new LinkedHashMap<>();
+            phaseReport.put("count", statistics.getCount());
+            phaseReport.put("totalMillis", millis(statistics.getTotalNanos()));
+            phaseReport.put("p50Millis", millis(statistics.percentileNanos(50)));
+            phaseReport.put("p90Millis", millis(statistics.percentileNanos(90)));
+            phaseReport.put("p99Millis", millis(statistics.percentileNanos(99)));
+            phaseReport.put("maxMillis", millis(statistics.getMaxNanos()));
+            phases.put(phase, phaseReport);
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("extension", BuildProperties.projectArtifactId() + ":" + BuildProperties.projectVersion());
+        report.put("phases", phases);
+
+        Files.createDirectories(reportFile.getParentFile().toPath());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+    }
+
+    /**
+     * @param timings timings
+     * @return single line summary, e.g. <code>model.process 3x 120.5 ms, git.status 1x 80.1 ms</code>
+     */
+    static String summary(Timings timings) {
+        return timings.statistics().values().stream()
+                .map(statistics -> statistics.getPhase() + " " + statistics.getCount() + "x "
+                        + String.format(Locale.ROOT, "%.1f", millis(statistics.getTotalNanos())) + " ms")
+                .collect(joining(", "));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,93 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import me.qoomon.gitversioning.GitVersionDetails;
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.SessionData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Exports resolved {@link GitVersionDetails} of a session to <code>target/git-versioning.properties</code>
+ * and <code>target/git-versioning.json</code>, so following pipeline steps do not have to start maven again.
+ */
+final class VersionDetailsExport {
+
+    static final String PROPERTIES_FILE_NAME = "git-versioning.properties";
+    static final String JSON_FILE_NAME = "git-versioning.json";
+
+    private static final String SESSION_DATA_KEY = VersionDetailsExport.class.getName();
+
+    private VersionDetailsExport() {
+    }
+
+    /**
+     * Stores <code>versionDetails</code> as plain map within the repository session data,
+     * because {@link ModelProcessor} and mojos are loaded by different class realms.
+     *
+     * @param session        maven session
+     * @param versionDetails version details
+     */
+    static void register(MavenSession session, GitVersionDetails versionDetails) {
+        SessionData sessionData = session.getRepositorySession().getData();
+        sessionData.set(SESSION_DATA_KEY, sessionData.get(SESSION_DATA_KEY), toMap(versionDetails));
+    }
+
+    /**
+     * @param session maven session
+     * @return version details of <code>session</code> or null, if no version has been resolved
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> registered(MavenSession session) {
+        return (Map<String, Object>) session.getRepositorySession().getData().get(SESSION_DATA_KEY);
+    }
+
+    static Map<String, Object> toMap(GitVersionDetails versionDetails) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("version", versionDetails.getVersion());
+        details.put("commit", versionDetails.getCommit());
+        details.put("commitRefType", versionDetails.getCommitRefType());
+        details.put("commitRefName", versionDetails.getCommitRefName());
+        details.put("clean", versionDetails.isClean());
+        details.put("metaData", new TreeMap<>(versionDetails.getMetaData()));
+        return details;
+    }
+
+    /**
+     * @param details         version details, see {@link #registered(MavenSession)}
+     * @param outputDirectory output directory
+     * @throws IOException IOException
+     */
+    static void write(Map<String, Object> details, File outputDirectory) throws IOException {
+        MavenUtil.writeProperties(new File(outputDirectory, PROPERTIES_FILE_NAME), toProperties(details));
+
+        Files.createDirectories(outputDirectory.toPath());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File(outputDirectory, JSON_FILE_NAME), details);
+    }
+
+    /**
+     * @param details version details, see {@link #registered(MavenSession)}
+     * @return flat properties, meta data is prefixed by <code>metaData.</code>
+     */
+    @SuppressWarnings("unchecked")
+    static Properties toProperties(Map<String, Object> details) {
+        Properties properties = new Properties();
+        details.forEach((key, value) -> {
+            if (value instanceof Map) {
+                ((Map<String, String>) value).forEach((metaDataKey, metaDataValue) ->
+                        properties.setProperty(key + "." + metaDataKey, metaDataValue));
+            } else {
+                properties.setProperty(key, String.valueOf(value));
+            }
+        });
+        return properties;
+    }
+}
@@ -0,0 +1,134 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.GitRepoSituation;
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.SessionData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+
+/**
+ * Resolved git repository situation and version, persisted to <code>.mvn/git-versioning.lock</code>.
+ * <p>
+ * Used instead of the git repository, if a project is built without its <code>.git</code> directory
+ * e.g. within a docker build.
+ */
+final class VersionLock {
+
+    static final String FILE_NAME = "git-versioning.lock";
+
+    private static final String SESSION_DATA_KEY = VersionLock.class.getName();
+
+    private static final String CLEAN = "clean";
+    private static final String COMMIT = "commit";
+    private static final String COMMIT_ABBREV_LENGTH = "commitAbbrevLength";
+    private static final String COMMIT_TIME = "commitTime";
+    private static final String BRANCH = "branch";
+    private static final String TAGS = "tags";
+    private static final String DESCRIBE = "describe";
+    private static final String VERSION = "version";
+
+    private final GitRepoSituation repoSituation;
+    private final String version;
+
+    VersionLock(GitRepoSituation repoSituation, String version) {
+        this.repoSituation = repoSituation;
+        this.version = version;
+    }
+
+    GitRepoSituation getRepoSituation() {
+        return repoSituation;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    /**
+     * @param lockFile lock file
+     * @return version lock
+     * @throws IOException IOException
+     */
+    static VersionLock read(File lockFile) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(lockFile.toPath(), UTF_8)) {
+            properties.load(reader);
+        }
+        return of(properties);
+    }
+
+    /**
+     * Writes lock file, content only changes if the version changes.
+     *
+     * @param lockFile lock file
+     * @throws IOException IOException
+     */
+    void write(File lockFile) throws IOException {
+        MavenUtil.writeProperties(lockFile, toProperties());
+    }
+
+    /**
+     * Provides this lock to the mojos of <code>session</code>.
+     * Stored as {@link Properties}, because {@link ModelProcessor} and mojos are loaded by different class realms.
+     *
+     * @param session maven session
+     */
+    void register(MavenSession session) {
+        SessionData sessionData = session.getRepositorySession().getData();
+        sessionData.set(SESSION_DATA_KEY, sessionData.get(SESSION_DATA_KEY), toProperties());
+    }
+
+    /**
+     * @param session maven session
+     * @return version lock registered by {@link ModelProcessor} or null, if there is none
+     */
+    static VersionLock registered(MavenSession session) {
+        Object properties = session.getRepositorySession().getData().get(SESSION_DATA_KEY);
+        return properties != null ? of((Properties) properties) : null;
+    }
+
+    private Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(CLEAN, String.valueOf(repoSituation.isClean()));
+        properties.setProperty(COMMIT, repoSituation.getHeadCommit());
+        if (repoSituation.getHeadCommitAbbrevLength() > 0) {
+            properties.setProperty(COMMIT_ABBREV_LENGTH, String.valueOf(repoSituation.getHeadCommitAbbrevLength()));
+        }
+        if (repoSituation.getHeadCommitTime() > 0) {
+            properties.setProperty(COMMIT_TIME, String.valueOf(repoSituation.getHeadCommitTime()));
+        }
+        if (repoSituation.getHeadBranch() != null) {
+            properties.setProperty(BRANCH, repoSituation.getHeadBranch());
+        }
+        // tag names can not contain spaces
+        properties.setProperty(TAGS, String.join(" ", repoSituation.getHeadTags()));
+        if (repoSituation.getHeadDescribe() != null) {
+            properties.setProperty(DESCRIBE, repoSituation.getHeadDescribe());
+        }
+        properties.setProperty(VERSION, version);
+        return properties;
+    }
+
+    private static VersionLock of(Properties properties) {
+        if (properties.getProperty(COMMIT) == null || properties.getProperty(VERSION) == null) {
+            throw new IllegalArgumentException("invalid version lock - '" + COMMIT + "' and '" + VERSION + "' are required");
+        }
+        String tags = properties.getProperty(TAGS, "");
+        GitRepoSituation repoSituation = new GitRepoSituation(
+                Boolean.parseBoolean(properties.getProperty(CLEAN)),
+                properties.getProperty(COMMIT),
+                properties.getProperty(BRANCH),
+                tags.isEmpty() ? emptyList() : Arrays.asList(tags.split(" ")),
+                properties.getProperty(DESCRIBE));
+        repoSituation.setHeadCommitAbbrevLength(Integer.parseInt(properties.getProperty(COMMIT_ABBREV_LENGTH, "0")));
+        repoSituation.setHeadCommitTime(Long.parseLong(properties.getProperty(COMMIT_TIME, "0")));
+        return new VersionLock(repoSituation, properties.getProperty(VERSION));
+    }
+}
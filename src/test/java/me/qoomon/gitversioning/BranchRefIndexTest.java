@@ -0,0 +1,113 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.R_REMOTES;
+
+class BranchRefIndexTest {
+
+    @TempDir
+    Path projectDir;
+
+    Git git;
+
+    RevCommit headCommit;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        git = Git.init().setDirectory(projectDir.toFile()).call();
+        RevCommit initialCommit = git.commit().setMessage("initial commit").call();
+        headCommit = git.commit().setMessage("head commit").call();
+        git.branchCreate().setName("feature/b").call();
+        git.branchCreate().setName("feature/a").call();
+        git.branchCreate().setName("old").setStartPoint(initialCommit).call();
+        updateRef(R_REMOTES + "origin/release/1.0", headCommit);
+        git.getRepository().updateRef(R_REMOTES + "origin/HEAD").link(R_REMOTES + "origin/release/1.0");
+        git.checkout().setName(headCommit.name()).call();
+    }
+
+    @Test
+    void refNames() {
+        // when
+        BranchRefIndex index = BranchRefIndex.read(git.getRepository());
+
+        // then
+        assertThat(index.refNames(headCommit)).containsExactlyInAnyOrder(
+                "refs/heads/feature/a",
+                "refs/heads/feature/b",
+                "refs/heads/master",
+                "refs/remotes/origin/release/1.0");
+    }
+
+    @Test
+    void branch_preferenceOrder() {
+        // given
+        BranchRefIndex index = BranchRefIndex.read(git.getRepository());
+
+        // then
+        assertThat(index.branch(headCommit, patterns("refs/remotes/origin/.+", "refs/heads/.+")))
+                .isEqualTo("release/1.0");
+        assertThat(index.branch(headCommit, patterns("refs/heads/feature/.+", "refs/heads/.+")))
+                .isEqualTo("feature/a");
+        assertThat(index.branch(headCommit, patterns("refs/heads/old", "refs/heads/master")))
+                .isEqualTo("master");
+        assertThat(index.branch(headCommit, patterns("refs/heads/old")))
+                .isNull();
+    }
+
+    @Test
+    void situation_detachedHead() {
+        // when
+        GitRepoSituation situation = GitUtil.situation(projectDir.toFile(), new Timings(), emptyList(),
+                patterns("refs/remotes/origin/.+"));
+
+        // then
+        assertThat(situation.getHeadBranch()).isEqualTo("release/1.0");
+    }
+
+    @Test
+    void situation_detachedHead_noBranchRefPatterns() {
+        // when
+        GitRepoSituation situation = GitUtil.situation(projectDir.toFile(), new Timings(), emptyList(), emptyList());
+
+        // then
+        assertThat(situation.getHeadBranch()).isNull();
+    }
+
+    @Test
+    void situation_attachedHead() throws Exception {
+        // given
+        git.checkout().setName("feature/b").call();
+
+        // when
+        GitRepoSituation situation = GitUtil.situation(projectDir.toFile(), new Timings(), emptyList(),
+                singletonList(Pattern.compile("refs/heads/.+")));
+
+        // then
+        assertThat(situation.getHeadBranch()).isEqualTo("feature/b");
+    }
+
+    private void updateRef(String refName, RevCommit commit) throws Exception {
+        RefUpdate refUpdate = git.getRepository().updateRef(refName);
+        refUpdate.setNewObjectId(commit);
+        refUpdate.forceUpdate();
+    }
+
+    private static List<Pattern> patterns(String... patterns) {
+        return Arrays.stream(patterns).map(Pattern::compile).collect(toList());
+    }
+}
@@ -0,0 +1,119 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.OBJ_BLOB;
+
+class CommitAbbreviationTest {
+
+    /**
+     * Enough objects to share prefixes of 4 hex digits.
+     */
+    static final int OBJECT_COUNT = 10_000;
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void abbreviate_looseObjects() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        List<ObjectId> objectIds = insertBlobs(git.getRepository(), "loose", OBJECT_COUNT);
+
+        // then
+        assertSameAsJGit(git.getRepository(), objectIds);
+    }
+
+    @Test
+    void abbreviate_packsAndLooseObjects() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        List<ObjectId> objectIds = new ArrayList<>();
+        for (int pack = 0; pack < 2; pack++) {
+            try (ObjectInserter inserter = ((ObjectDirectory) git.getRepository().getObjectDatabase()).newPackInserter()) {
+                objectIds.addAll(insertBlobs(inserter, "pack-" + pack, OBJECT_COUNT / 2));
+            }
+        }
+        objectIds.addAll(insertBlobs(git.getRepository(), "loose", OBJECT_COUNT / 4));
+
+        // then
+        assertSameAsJGit(git.getRepository(), objectIds);
+    }
+
+    @Test
+    void abbreviate_minLength() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        ObjectId objectId = insertBlobs(git.getRepository(), "single", 1).get(0);
+
+        // when
+        String abbreviation = GitUtil.abbreviate(git.getRepository(), objectId, 12);
+
+        // then
+        assertThat(abbreviation).isEqualTo(objectId.name().substring(0, 12));
+    }
+
+    @Test
+    void determineVersion_commitAbbrev() {
+        // given
+        GitRepoSituation repoSituation = new GitRepoSituation(true, "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b",
+                null, emptyList(), null);
+        repoSituation.setHeadCommitAbbrevLength(9);
+
+        // when
+        GitVersionDetails defaultMinLengthDetails = GitVersioning.determineVersion(repoSituation,
+                new VersionDescription(null, "${commit.abbrev}"), emptyList(), emptyList(), "1.0.0");
+        GitVersionDetails minLengthDetails = GitVersioning.determineVersion(repoSituation,
+                new VersionDescription(null, "${commit.abbrev}"), emptyList(), emptyList(), "1.0.0", 12);
+
+        // then
+        assertThat(defaultMinLengthDetails.getVersion()).isEqualTo("0fc20459a");
+        assertThat(minLengthDetails.getVersion()).isEqualTo("0fc20459a8ec");
+    }
+
+    private static void assertSameAsJGit(Repository repository, List<ObjectId> objectIds) throws Exception {
+        int maxLength = 0;
+        try (ObjectReader reader = repository.newObjectReader();
+             ObjectAbbreviation objectAbbreviation = ObjectAbbreviation.open(repository)) {
+            for (int i = 0; i < objectIds.size(); i += 11) {
+                ObjectId objectId = objectIds.get(i);
+                String abbreviation = GitUtil.abbreviate(repository, objectId, 4);
+                assertThat(abbreviation).isEqualTo(reader.abbreviate(objectId, 4).name());
+                // same instance for all objects, like module situations
+                assertThat(objectAbbreviation.uniqueLength(objectId)).isEqualTo(abbreviation.length());
+                maxLength = Math.max(maxLength, abbreviation.length());
+            }
+        }
+        // some prefixes are not unique at minimum length
+        assertThat(maxLength).isGreaterThan(4);
+    }
+
+    private static List<ObjectId> insertBlobs(Repository repository, String prefix, int count) throws Exception {
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            return insertBlobs(inserter, prefix, count);
+        }
+    }
+
+    private static List<ObjectId> insertBlobs(ObjectInserter inserter, String prefix, int count) throws Exception {
+        List<ObjectId> objectIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            objectIds.add(inserter.insert(OBJ_BLOB, (prefix + " " + i).getBytes(UTF_8)));
+        }
+        inserter.flush();
+        return objectIds;
+    }
+}
@@ -0,0 +1,176 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+import static org.eclipse.jgit.lib.Constants.MASTER;
+
+class CommitGraphDescribeTest {
+
+    @TempDir
+    Path projectDir;
+
+    long commitTime = 1_000_000_000;
+
+    @Test
+    void commitGraph_read() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        RevCommit firstCommit = commit(git, "initial commit");
+        commit(git, "second commit");
+        RevCommit lastCommit = commit(git, "third commit");
+        CommitGraphWriter.write(git.getRepository());
+
+        // when
+        CommitGraph commitGraph = CommitGraph.read(git.getRepository());
+
+        // then
+        assertThat(commitGraph).isNotNull();
+        assertThat(commitGraph.size()).isEqualTo(3);
+        int lastPosition = commitGraph.position(lastCommit);
+        assertThat(commitGraph.objectId(lastPosition)).isEqualTo(lastCommit);
+        assertThat(commitGraph.generation(lastPosition)).isEqualTo(3);
+        assertThat(commitGraph.commitTime(lastPosition)).isEqualTo(lastCommit.getCommitTime());
+        int firstPosition = commitGraph.position(firstCommit);
+        assertThat(commitGraph.parent(firstPosition, 0)).isEqualTo(-1);
+        assertThat(commitGraph.objectId(commitGraph.parent(commitGraph.parent(lastPosition, 0), 0)))
+                .isEqualTo(firstCommit);
+        assertThat(commitGraph.position(ObjectId.zeroId())).isEqualTo(-1);
+    }
+
+    @Test
+    void describe_linearHistory() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        commit(git, "second commit");
+        git.tag().setName("lightweight").setAnnotated(false).call();
+        commit(git, "third commit");
+        CommitGraphWriter.write(git.getRepository());
+        commit(git, "commit after commit-graph");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(describe).isEqualTo(git.describe().call());
+        assertThat(describe).startsWith("v1-3-g");
+    }
+
+    @Test
+    void describe_mergeHistory() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        commit(git, "feature commit 1");
+        commit(git, "feature commit 2");
+        git.tag().setName("feature-1").setAnnotated(true).call();
+        git.checkout().setName(MASTER).call();
+        commit(git, "master commit 1");
+        git.merge().include(git.getRepository().resolve("feature")).setCommit(false).call();
+        commit(git, "merge feature");
+        commit(git, "master commit 2");
+        CommitGraphWriter.write(git.getRepository());
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(describe).isEqualTo(git.describe().call());
+    }
+
+    @Test
+    void commitGraphWalk_count() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        List<RevCommit> commits = new ArrayList<>();
+        commits.add(commit(git, "initial commit"));
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        commits.add(commit(git, "feature commit 1"));
+        commits.add(commit(git, "feature commit 2"));
+        git.checkout().setName(MASTER).call();
+        commits.add(commit(git, "master commit 1"));
+        git.merge().include(git.getRepository().resolve("feature")).setCommit(false).call();
+        commits.add(commit(git, "merge feature"));
+        CommitGraphWriter.write(git.getRepository());
+        git.checkout().setName("feature").call();
+        commits.add(commit(git, "feature commit after commit-graph"));
+        git.checkout().setName(MASTER).call();
+        git.merge().include(git.getRepository().resolve("feature")).setCommit(false).call();
+        commits.add(commit(git, "merge feature after commit-graph"));
+
+        try (CommitGraphWalk walk = new CommitGraphWalk(git.getRepository(), CommitGraph.read(git.getRepository()))) {
+            for (RevCommit commit : commits) {
+                for (RevCommit uninteresting : commits) {
+                    // when
+                    int count = walk.count(walk.node(commit), walk.node(uninteresting), Integer.MAX_VALUE);
+
+                    // then
+                    assertThat(count).as(commit.getShortMessage() + " excluding " + uninteresting.getShortMessage())
+                            .isEqualTo(revListCount(git, commit, uninteresting));
+                }
+            }
+        }
+    }
+
+    @Test
+    void describe_noTag() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "initial commit");
+        CommitGraphWriter.write(git.getRepository());
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(describe).isNull();
+    }
+
+    @Test
+    void describe_noCommit() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(git.getRepository().resolve(HEAD)).isNull();
+        assertThat(describe).isNull();
+    }
+
+    private static int revListCount(Git git, RevCommit commit, RevCommit uninteresting) throws Exception {
+        int count = 0;
+        try (RevWalk revWalk = new RevWalk(git.getRepository())) {
+            revWalk.markStart(revWalk.parseCommit(commit));
+            revWalk.markUninteresting(revWalk.parseCommit(uninteresting));
+            for (RevCommit ignored : revWalk) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private RevCommit commit(Git git, String message) throws Exception {
+        // distinct commit times, commit time resolution is one second
+        PersonIdent ident = new PersonIdent("test", "test@test", new Date(++commitTime * 1000), TimeZone.getTimeZone("UTC"));
+        return git.commit().setMessage(message).setAllowEmpty(true).setAuthor(ident).setCommitter(ident).call();
+    }
+}
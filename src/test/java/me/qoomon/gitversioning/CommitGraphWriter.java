@@ -0,0 +1,109 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes commit-graph files for tests, see {@link CommitGraph}.
+ */
+public final class CommitGraphWriter {
+
+    private CommitGraphWriter() {
+    }
+
+    /**
+     * Write commit-graph file of all commits reachable from any ref, like <code>git commit-graph write --reachable</code>.
+     *
+     * @param repository repository
+     * @throws IOException IOException
+     */
+    public static void write(Repository repository) throws IOException {
+        List<RevCommit> commits = new ArrayList<>();
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            for (Ref ref : repository.getRefDatabase().getRefs()) {
+                ObjectId objectId = repository.getRefDatabase().peel(ref).getPeeledObjectId();
+                RevObject object = revWalk.parseAny(objectId != null ? objectId : ref.getObjectId());
+                if (object instanceof RevCommit) {
+                    revWalk.markStart((RevCommit) object);
+                }
+            }
+            revWalk.sort(RevSort.TOPO, true);
+            revWalk.sort(RevSort.REVERSE, true);
+            revWalk.forEach(commits::add);
+        }
+
+        // generation numbers, parents are always visited before their children in reverse topological order
+        Map<ObjectId, Integer> generations = new HashMap<>();
+        for (RevCommit commit : commits) {
+            int generation = 1;
+            for (RevCommit parent : commit.getParents()) {
+                generation = Math.max(generation, generations.get(parent) + 1);
+            }
+            generations.put(commit, generation);
+        }
+
+        commits.sort(Comparator.naturalOrder());
+        Map<ObjectId, Integer> positions = new HashMap<>();
+        for (int i = 0; i < commits.size(); i++) {
+            positions.put(commits.get(i), i);
+        }
+
+        int chunkTableOffset = 8;
+        int fanoutOffset = chunkTableOffset + 4 * 12;
+        int lookupOffset = fanoutOffset + 256 * 4;
+        int commitDataOffset = lookupOffset + commits.size() * 20;
+        int endOffset = commitDataOffset + commits.size() * 36;
+        ByteBuffer buffer = ByteBuffer.allocate(endOffset + 20);
+        buffer.putInt(0x43475048).put((byte) 1).put((byte) 1).put((byte) 3).put((byte) 0);
+        buffer.putInt(0x4f494446).putLong(fanoutOffset);
+        buffer.putInt(0x4f49444c).putLong(lookupOffset);
+        buffer.putInt(0x43444154).putLong(commitDataOffset);
+        buffer.putInt(0).putLong(endOffset);
+
+        int[] fanout = new int[256];
+        for (RevCommit commit : commits) {
+            fanout[commit.getFirstByte()]++;
+        }
+        for (int i = 0, count = 0; i < 256; i++) {
+            count += fanout[i];
+            buffer.putInt(count);
+        }
+        byte[] id = new byte[20];
+        for (RevCommit commit : commits) {
+            commit.copyRawTo(id, 0);
+            buffer.put(id);
+        }
+        for (RevCommit commit : commits) {
+            if (commit.getParentCount() > 2) {
+                throw new UnsupportedOperationException("octopus merges are not supported");
+            }
+            commit.getTree().copyRawTo(id, 0);
+            buffer.put(id);
+            buffer.putInt(commit.getParentCount() > 0 ? positions.get(commit.getParent(0)) : 0x70000000);
+            buffer.putInt(commit.getParentCount() > 1 ? positions.get(commit.getParent(1)) : 0x70000000);
+            buffer.putLong(((long) generations.get(commit) << 34) | (commit.getCommitTime() & 0xffffffffL));
+        }
+        buffer.put(Constants.newMessageDigest().digest(Arrays.copyOf(buffer.array(), endOffset)));
+
+        Path commitGraphFile = repository.getDirectory().toPath().resolve("objects/info/commit-graph");
+        Files.createDirectories(commitGraphFile.getParent());
+        Files.write(commitGraphFile, buffer.array());
+    }
+}
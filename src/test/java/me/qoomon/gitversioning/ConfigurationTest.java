@@ -1,11 +1,14 @@
-package me.qoomon.maven.gitversioning;
+package me.qoomon.gitversioning;
 
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.regex.Pattern;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ConfigurationTest {
@@ -17,8 +20,7 @@ class ConfigurationTest {
                 "</gitVersioning>\n";
 
         // when
-        Configuration config = new XmlMapper()
-                .readValue(configXml, Configuration.class);
+        Configuration config = read(configXml);
 
         // then
         assertAll(
@@ -39,8 +41,7 @@ class ConfigurationTest {
                 "</gitVersioning>\n";
 
         // when
-        Configuration config = new XmlMapper()
-                .readValue(configXml, Configuration.class);
+        Configuration config = read(configXml);
 
         // then
         assertAll(
@@ -67,8 +68,7 @@ class ConfigurationTest {
                 "</gitVersioning>\n";
 
         // when
-        Configuration config = new XmlMapper()
-                .readValue(configXml, Configuration.class);
+        Configuration config = read(configXml);
 
         // then
         assertAll(
@@ -105,8 +105,7 @@ class ConfigurationTest {
                 "</gitVersioning>\n";
 
         // when
-        Configuration config = new XmlMapper()
-                .readValue(configXml, Configuration.class);
+        Configuration config = read(configXml);
 
         // then
         assertAll(
@@ -154,8 +153,7 @@ class ConfigurationTest {
                 "</gitVersioning>\n";
 
         // when
-        Configuration config = new XmlMapper()
-                .readValue(configXml, Configuration.class);
+        Configuration config = read(configXml);
 
         // then
         assertAll(
@@ -187,4 +185,171 @@ class ConfigurationTest {
                         ))
         );
     }
+
+    @Test
+    void xmlUnmarshaller_perModule() throws IOException {
+        // given
+        String configXml = "" +
+                "<gitVersioning>\n" +
+                "    <perModule>true</perModule>\n" +
+                "</gitVersioning>\n";
+
+        // when
+        Configuration config = read(configXml);
+
+        // then
+        assertThat(config.perModule).isTrue();
+        assertThat(new Configuration().perModule).isFalse();
+    }
+
+    @Test
+    void xmlUnmarshaller_describeTagPattern() throws IOException {
+        // given
+        String configXml = "" +
+                "<gitVersioning>\n" +
+                "    <describeTagPattern>release/.+</describeTagPattern>\n" +
+                "    <tag>\n" +
+                "        <pattern>v[0-9].*</pattern>\n" +
+                "        <versionFormat>${tag}</versionFormat>\n" +
+                "    </tag>\n" +
+                "</gitVersioning>\n";
+
+        // when
+        Configuration config = read(configXml);
+
+        // then
+        assertThat(config.describeTagPattern).isEqualTo("release/.+");
+        assertThat(config.describeTagPatterns()).extracting(Pattern::pattern)
+                .containsExactly("release/.+");
+        config.describeTagPattern = null;
+        assertThat(config.describeTagPatterns()).extracting(Pattern::pattern)
+                .containsExactly("v[0-9].*");
+    }
+
+    @Test
+    void xmlUnmarshaller_describeTagPattern_tagWithoutPattern() throws IOException {
+        // given
+        String configXml = "" +
+                "<gitVersioning>\n" +
+                "    <tag>\n" +
+                "        <pattern>v[0-9].*</pattern>\n" +
+                "        <versionFormat>${tag}</versionFormat>\n" +
+                "    </tag>\n" +
+                "    <tag>\n" +
+                "        <versionFormat>${commit.short}</versionFormat>\n" +
+                "    </tag>\n" +
+                "</gitVersioning>\n";
+
+        // when
+        Configuration config = read(configXml);
+
+        // then
+        // tag rule without pattern matches all tags, so describe considers all tags
+        assertThat(config.describeTagPatterns()).isEmpty();
+        config.tag.remove(1);
+        assertThat(config.describeTagPatterns()).extracting(Pattern::pattern)
+                .containsExactly("v[0-9].*");
+    }
+
+    @Test
+    void xmlUnmarshaller_branchRefPattern() throws IOException {
+        // given
+        String configXml = "" +
+                "<gitVersioning>\n" +
+                "    <branchRefPattern>refs/remotes/origin/(main|master)</branchRefPattern>\n" +
+                "    <branchRefPattern>refs/remotes/origin/.+</branchRefPattern>\n" +
+                "</gitVersioning>\n";
+
+        // when
+        Configuration config = read(configXml);
+
+        // then
+        assertThat(config.branchRefPatterns()).extracting(Pattern::pattern)
+                .containsExactly("refs/remotes/origin/(main|master)", "refs/remotes/origin/.+");
+        assertThat(new Configuration().branchRefPattern).isEmpty();
+    }
+
+    @Test
+    void xmlUnmarshaller_commitAbbrevMinLength() throws IOException {
+        // given
+        String configXml = "" +
+                "<gitVersioning>\n" +
+                "    <commitAbbrevMinLength> 9 </commitAbbrevMinLength>\n" +
+                "</gitVersioning>\n";
+
+        // when
+        Configuration config = read(configXml);
+
+        // then
+        assertThat(config.commitAbbrevMinLength).isEqualTo(9);
+        assertThat(new Configuration().commitAbbrevMinLength).isEqualTo(7);
+    }
+
+    @Test
+    void xmlUnmarshaller_cdataPattern() throws IOException {
+        // given
+        String configXml = "" +
+                "<gitVersioning>\n" +
+                "    <!-- feature branches -->\n" +
+                "    <branch>\n" +
+                "        <pattern><![CDATA[feature/(?<feature>.+)]]></pattern>\n" +
+                "        <versionFormat>${feature}-SNAPSHOT</versionFormat>\n" +
+                "    </branch>\n" +
+                "</gitVersioning>\n";
+
+        // when
+        Configuration config = read(configXml);
+
+        // then
+        assertThat(config.branch).hasSize(1);
+        assertThat(config.branch.get(0).pattern).isEqualTo("feature/(?<feature>.+)");
+        assertThat(config.branch.get(0).versionFormat).isEqualTo("${feature}-SNAPSHOT");
+    }
+
+    @Test
+    void xmlUnmarshaller_unknownElement() {
+        // given
+        String configXml = "" +
+                "<gitVersioning>\n" +
+                "    <branch>\n" +
+                "        <patern>master</patern>\n" +
+                "    </branch>\n" +
+                "</gitVersioning>\n";
+
+        // then
+        assertThatThrownBy(() -> read(configXml))
+                .isInstanceOf(IOException.class)
+                .hasMessage("unknown element <patern> at line 3");
+    }
+
+    @Test
+    void xmlUnmarshaller_unknownRootElement() {
+        // given
+        String configXml = "" +
+                "<configuration>\n" +
+                "</configuration>\n";
+
+        // then
+        assertThatThrownBy(() -> read(configXml))
+                .isInstanceOf(IOException.class)
+                .hasMessage("unknown element <configuration> at line 1");
+    }
+
+    @Test
+    void xmlUnmarshaller_invalidBoolean() {
+        // given
+        String configXml = "" +
+                "<gitVersioning>\n" +
+                "    <perModule>yes</perModule>\n" +
+                "</gitVersioning>\n";
+
+        // then
+        assertThatThrownBy(() -> read(configXml))
+                .isInstanceOf(IOException.class)
+                .hasMessage("invalid boolean 'yes' at line 2");
+    }
+
+    private static Configuration read(String configXml) throws IOException {
+        return ConfigurationReader.read(new ByteArrayInputStream(configXml.getBytes(UTF_8)));
+    }
 }
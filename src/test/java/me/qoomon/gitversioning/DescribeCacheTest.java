@@ -0,0 +1,149 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+import static org.eclipse.jgit.lib.Constants.MASTER;
+
+class DescribeCacheTest {
+
+    @TempDir
+    Path projectDir;
+
+    long commitTime = 1_000_000_000;
+
+    @Test
+    void describe_newCommitsOnCachedCommit() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        commit(git, "second commit");
+        String cachedDescribe = GitUtil.describe(git.getRepository());
+        commit(git, "third commit");
+        commit(git, "fourth commit");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(cachedDescribe).startsWith("v1-1-g");
+        assertThat(describe).isEqualTo(git.describe().call()).startsWith("v1-3-g");
+        List<String> cacheLines = Files.readAllLines(cacheFile(git).toPath(), UTF_8);
+        assertThat(cacheLines).hasSize(3)
+                .contains(git.getRepository().resolve(HEAD).name() + " 3 v1");
+    }
+
+    @Test
+    void describe_noTag() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "initial commit");
+        GitUtil.describe(git.getRepository());
+        commit(git, "second commit");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(describe).isNull();
+    }
+
+    @Test
+    void describe_tagAdded() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        commit(git, "second commit");
+        GitUtil.describe(git.getRepository());
+        git.tag().setName("v2").setAnnotated(true).call();
+        commit(git, "third commit");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(describe).isEqualTo(git.describe().call()).startsWith("v2-1-g");
+    }
+
+    @Test
+    void describe_tagRemoved() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        commit(git, "second commit");
+        git.tag().setName("v2").setAnnotated(true).call();
+        commit(git, "third commit");
+        GitUtil.describe(git.getRepository());
+        git.tagDelete().setTags("v2").call();
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(describe).isEqualTo(git.describe().call()).startsWith("v1-2-g");
+    }
+
+    @Test
+    void describe_mergeCommitOnCachedCommit() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        commit(git, "feature commit 1");
+        commit(git, "feature commit 2");
+        git.checkout().setName(MASTER).call();
+        commit(git, "master commit 1");
+        GitUtil.describe(git.getRepository());
+        git.merge().include(git.getRepository().resolve("feature")).setCommit(false).call();
+        commit(git, "merge feature");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(describe).isEqualTo(git.describe().call()).startsWith("v1-4-g");
+    }
+
+    @Test
+    void describe_corruptCacheFile() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        commit(git, "second commit");
+        GitUtil.describe(git.getRepository());
+        Files.write(cacheFile(git).toPath(), "garbage".getBytes(UTF_8));
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(describe).isEqualTo(git.describe().call());
+    }
+
+    private static File cacheFile(Git git) {
+        return new File(git.getRepository().getDirectory(), "git-versioning/describe-cache");
+    }
+
+    private void commit(Git git, String message) throws Exception {
+        // distinct commit times, commit time resolution is one second
+        PersonIdent ident = new PersonIdent("test", "test@test", new Date(++commitTime * 1000), TimeZone.getTimeZone("UTC"));
+        git.commit().setMessage(message).setAllowEmpty(true).setAuthor(ident).setCommitter(ident).call();
+    }
+}
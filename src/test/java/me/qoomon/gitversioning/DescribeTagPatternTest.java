@@ -0,0 +1,181 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TagBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+import static org.eclipse.jgit.lib.Constants.MASTER;
+import static org.eclipse.jgit.lib.Constants.OBJ_COMMIT;
+import static org.eclipse.jgit.lib.Constants.R_TAGS;
+
+class DescribeTagPatternTest {
+
+    @TempDir
+    Path projectDir;
+
+    Git git;
+
+    long commitTime = 1_000_000_000;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        git = Git.init().setDirectory(projectDir.toFile()).call();
+    }
+
+    @Test
+    void describe_ignoresNonMatchingTags() throws Exception {
+        // given
+        commit("initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        commit("second commit");
+        git.tag().setName("other-product-9").setAnnotated(true).call();
+        commit("third commit");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository(), singletonList(Pattern.compile("v[0-9].*")));
+
+        // then
+        assertThat(describe).startsWith("v1-2-g");
+        assertThat(GitUtil.describe(git.getRepository())).startsWith("other-product-9-1-g");
+    }
+
+    @Test
+    void describe_exactMatch() throws Exception {
+        // given
+        commit("initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        git.tag().setName("other-product-9").setAnnotated(true).call();
+
+        // when
+        String describe = GitUtil.describe(git.getRepository(), singletonList(Pattern.compile("v[0-9].*")));
+
+        // then
+        assertThat(describe).isEqualTo("v1");
+    }
+
+    @Test
+    void describe_noMatchingTag() throws Exception {
+        // given
+        commit("initial commit");
+        git.tag().setName("other-product-9").setAnnotated(true).call();
+        commit("second commit");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository(), singletonList(Pattern.compile("v[0-9].*")));
+
+        // then
+        assertThat(describe).isNull();
+    }
+
+    @Test
+    void describe_mergeCommit_sameAsGitDescribe() throws Exception {
+        // given
+        commit("initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        commit("feature commit 1");
+        git.tag().setName("v2-rc").setAnnotated(true).call();
+        commit("feature commit 2");
+        git.checkout().setName(MASTER).call();
+        commit("master commit 1");
+        commit("master commit 2");
+        commit("master commit 3");
+        git.merge().include(git.getRepository().resolve("feature")).setCommit(false).call();
+        commit("merge feature");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository(), singletonList(Pattern.compile(".*")));
+
+        // then
+        assertThat(describe).isEqualTo(git.describe().call()).startsWith("v2-rc-5-g");
+    }
+
+    @Test
+    void describe_noPattern_sameAsGitDescribe() throws Exception {
+        // given
+        commit("initial commit");
+        git.tag().setName("v1").setAnnotated(true).call();
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        commit("feature commit 1");
+        git.tag().setName("feature-1").setAnnotated(true).call();
+        git.checkout().setName(MASTER).call();
+        commit("master commit 1");
+        git.merge().include(git.getRepository().resolve("feature")).setCommit(false).call();
+        commit("merge feature");
+        git.tag().setName("lightweight").setAnnotated(false).call();
+        commit("master commit 2");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository());
+
+        // then
+        assertThat(describe).isEqualTo(git.describe().call());
+        git.checkout().setName("feature").call();
+        assertThat(GitUtil.describe(git.getRepository())).isEqualTo(git.describe().call()).isEqualTo("feature-1");
+    }
+
+    @Test
+    void describe_exactMatch_tagWithoutTagger() throws Exception {
+        // given
+        commit("initial commit");
+        tagWithoutTagger("v1-imported");
+        git.tag().setName("v1").setAnnotated(true).call();
+
+        // when
+        String describe = GitUtil.describe(git.getRepository(), singletonList(Pattern.compile("v[0-9].*")));
+
+        // then
+        assertThat(describe).isEqualTo("v1");
+    }
+
+    @Test
+    void describe_tagsWithoutTagger() throws Exception {
+        // given
+        commit("initial commit");
+        tagWithoutTagger("v1-a");
+        tagWithoutTagger("v1-b");
+        commit("second commit");
+
+        // when
+        String describe = GitUtil.describe(git.getRepository(), singletonList(Pattern.compile("v[0-9].*")));
+
+        // then
+        assertThat(describe).startsWith("v1-b-1-g");
+    }
+
+    private void tagWithoutTagger(String name) throws Exception {
+        Repository repository = git.getRepository();
+        TagBuilder tag = new TagBuilder();
+        tag.setObjectId(repository.resolve(HEAD), OBJ_COMMIT);
+        tag.setTag(name);
+        tag.setMessage(name);
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            ObjectId tagId = inserter.insert(tag);
+            inserter.flush();
+            RefUpdate refUpdate = repository.updateRef(R_TAGS + name);
+            refUpdate.setNewObjectId(tagId);
+            assertThat(refUpdate.update()).isEqualTo(RefUpdate.Result.NEW);
+        }
+    }
+
+    private void commit(String message) throws Exception {
+        // distinct commit times, commit time resolution is one second
+        PersonIdent ident = new PersonIdent("test", "test@test", new Date(++commitTime * 1000), TimeZone.getTimeZone("UTC"));
+        git.commit().setMessage(message).setAllowEmpty(true).setAuthor(ident).setCommitter(ident).call();
+    }
+}
@@ -0,0 +1,101 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the packaged core jar with its manifest Class-Path only, see core-lib in pom.xml.
+ */
+public class GitVersioningCoreJarIT {
+
+    static Path MAVEN_BUILD_DIRECTORY = Paths.get("target");
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    public void coreLib_withoutMavenRuntime() throws IOException {
+        // when
+        String[] coreLib = MAVEN_BUILD_DIRECTORY.resolve("core-lib").toFile().list();
+
+        // then
+        assertThat(coreLib).containsExactlyInAnyOrder(
+                "org.eclipse.jgit.jar", "jsch.jar", "jzlib.jar", "JavaEWAH.jar", "slf4j-api.jar",
+                "unchecked-exceptions.jar", "maven-artifact.jar");
+    }
+
+    @Test
+    public void run() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        write("pom.xml", "<project>\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n"
+                + "    <groupId>test</groupId>\n"
+                + "    <artifactId>test</artifactId>\n"
+                + "    <version>1.0.0-SNAPSHOT</version>\n"
+                + "</project>\n");
+        write(".mvn/maven-git-versioning-extension.xml", "<gitVersioning>\n"
+                + "    <branch>\n"
+                + "        <pattern>.*</pattern>\n"
+                + "        <versionFormat>${branch}-${commit.short}</versionFormat>\n"
+                + "    </branch>\n"
+                + "</gitVersioning>\n");
+        git.add().addFilepattern(".").call();
+        RevCommit commit = git.commit().setMessage("initial commit").call();
+
+        // when
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-jar", coreJar().getAbsolutePath(),
+                "--directory", projectDir.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        String output = readAll(process);
+
+        // then
+        assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+        assertThat(process.exitValue()).isEqualTo(0);
+        assertThat(output).isEqualTo("master-" + commit.getName().substring(0, 7) + "\n");
+    }
+
+    private static File coreJar() throws IOException {
+        try (Stream<Path> files = Files.list(MAVEN_BUILD_DIRECTORY)) {
+            List<Path> coreJars = files
+                    .filter(file -> file.getFileName().toString().endsWith("-core.jar"))
+                    .collect(toList());
+            assertThat(coreJars).as("core jar, package phase has to run before").hasSize(1);
+            return coreJars.get(0).toFile();
+        }
+    }
+
+    private static String readAll(Process process) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read; (read = process.getInputStream().read(buffer)) >= 0; ) {
+            output.write(buffer, 0, read);
+        }
+        return new String(output.toByteArray(), UTF_8);
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = projectDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(UTF_8));
+    }
+}
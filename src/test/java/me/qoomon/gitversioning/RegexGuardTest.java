@@ -0,0 +1,105 @@
+package me.qoomon.gitversioning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RegexGuardTest {
+
+    @Test
+    void compile_commonPatterns() {
+        // when
+        Pattern featurePattern = RegexGuard.compile("feature/(?<feature>.+)");
+        Pattern versionPattern = RegexGuard.compile("v(?<version>[0-9]+(\\.[0-9]+)*)");
+
+        // then
+        assertThat(RegexGuard.matches(featurePattern, "feature/next-big-thing")).isTrue();
+        assertThat(RegexGuard.matches(versionPattern, "v1.2.3")).isTrue();
+    }
+
+    @Test
+    void compile_invalidPattern() {
+        // when
+        Throwable throwable = catchThrowable(() -> RegexGuard.compile("feature/(?<feature>.+"));
+
+        // then
+        assertThat(throwable).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("invalid pattern 'feature/(?<feature>.+'");
+    }
+
+    @Test
+    void compile_catastrophicBacktracking() {
+        // when
+        Throwable throwable = catchThrowable(() -> RegexGuard.compile("(.*a){12}b"));
+
+        // then
+        assertThat(throwable).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exceeded " + RegexGuard.MAX_STEPS + " evaluation steps");
+    }
+
+    @Test
+    void matches_catastrophicBacktracking() {
+        // given
+        Pattern pattern = Pattern.compile("feature/(.*x){20}y");
+        String branch = "feature/" + new String(new char[100]).replace('\0', 'x');
+
+        // when
+        Throwable throwable = catchThrowable(() -> RegexGuard.matches(pattern, branch));
+
+        // then
+        assertThat(throwable).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("pattern 'feature/(.*x){20}y' exceeded");
+    }
+
+    @Test
+    void find() {
+        // when
+        Matcher matcher = RegexGuard.find(Pattern.compile("v(?<version>.*)"), "release-v1.0.0");
+
+        // then
+        assertThat(matcher).isNotNull();
+        assertThat(matcher.group("version")).isEqualTo("1.0.0");
+        assertThat(RegexGuard.find(Pattern.compile("x"), "release-v1.0.0")).isNull();
+    }
+
+    @Test
+    void determineVersion_catastrophicBranchPattern() {
+        // given
+        GitRepoSituation repoSituation = new GitRepoSituation(true, "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b",
+                "feature/" + new String(new char[100]).replace('\0', 'x'), emptyList(), null);
+
+        // when
+        Throwable throwable = catchThrowable(() -> GitVersioning.determineVersion(repoSituation,
+                new VersionDescription(),
+                singletonList(new VersionDescription("feature/(.*x){20}y", "${branch}")),
+                emptyList(),
+                "1.0.0"));
+
+        // then
+        assertThat(throwable).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void determineVersion_patternGroups() {
+        // given
+        GitRepoSituation repoSituation = new GitRepoSituation(true, "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b",
+                "feature/next", emptyList(), null);
+
+        // when
+        GitVersionDetails versionDetails = GitVersioning.determineVersion(repoSituation,
+                new VersionDescription(),
+                singletonList(new VersionDescription("feature/(?<feature>.+)", "${feature}-SNAPSHOT")),
+                emptyList(),
+                "1.0.0");
+
+        // then
+        assertThat(versionDetails.getVersion()).isEqualTo("next-SNAPSHOT");
+        assertThat(versionDetails.getMetaData()).containsEntry("feature", "next");
+    }
+}
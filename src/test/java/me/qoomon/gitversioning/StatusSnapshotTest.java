@@ -0,0 +1,239 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class StatusSnapshotTest {
+
+    @TempDir
+    Path projectDir;
+
+    Git git;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        git = Git.init().setDirectory(projectDir.toFile()).call();
+        write(".gitignore", "target/\n");
+        write("pom.xml", "<project/>\n");
+        write("src/main/java/App.java", "class App {}\n");
+        Files.createDirectories(projectDir.resolve("src/empty"));
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("initial commit").call();
+        write("target/classes/App.class", "class");
+    }
+
+    @Test
+    void isClean_unchanged() throws Exception {
+        // given
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(clean).isTrue();
+        assertThat(snapshotFile()).exists();
+    }
+
+    @Test
+    void isClean_unchangedSizeAndModificationTime() throws Exception {
+        // given
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("unix"));
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+        File file = projectDir.resolve("pom.xml").toFile();
+        long lastModified = file.lastModified();
+        write("pom.xml", "<PROJECT/>\n");
+        file.setLastModified(lastModified);
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        // same as git, change time is compared as well
+        assertThat(clean).isFalse();
+    }
+
+    @Test
+    void isClean_modeChange() throws Exception {
+        // given
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+        Path file = projectDir.resolve("pom.xml");
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(file);
+        permissions.add(PosixFilePermission.OWNER_EXECUTE);
+        Files.setPosixFilePermissions(file, permissions);
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(git.status().call().getModified()).containsExactly("pom.xml");
+        assertThat(clean).isFalse();
+    }
+
+    @Test
+    void isClean_racilyCleanFile() throws Exception {
+        // given
+        File file = projectDir.resolve("pom.xml").toFile();
+        // touched file, snapshot is taken within timestamp granularity of the last modification
+        long lastModified = file.lastModified() + 10_000;
+        file.setLastModified(lastModified);
+        GitUtil.isClean(git.getRepository());
+        write("pom.xml", "<PROJECT/>\n");
+        file.setLastModified(lastModified);
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(clean).isFalse();
+        assertThat(snapshotFile()).doesNotExist();
+    }
+
+    @Test
+    void isClean_modifiedFile() throws Exception {
+        // given
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+        write("src/main/java/App.java", "class App { }\n");
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(clean).isFalse();
+    }
+
+    @Test
+    void isClean_deletedFile() throws Exception {
+        // given
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+        Files.delete(projectDir.resolve("src/main/java/App.java"));
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(clean).isFalse();
+    }
+
+    @Test
+    void isClean_untrackedFile() throws Exception {
+        // given
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+        write("src/main/java/Untracked.java", "class Untracked {}\n");
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(clean).isFalse();
+    }
+
+    @Test
+    void isClean_untrackedFileInEmptyDirectory() throws Exception {
+        // given
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+        write("src/empty/Untracked.java", "class Untracked {}\n");
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(clean).isFalse();
+    }
+
+    @Test
+    void isClean_ignoredFile() throws Exception {
+        // given
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+        write("target/classes/Other.class", "class");
+        deleteRecursively(projectDir.resolve("target"));
+        write("target/classes/App.class", "class");
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(clean).isTrue();
+    }
+
+    @Test
+    void isClean_newIgnoreRule() throws Exception {
+        // given
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+        write("src/main/.gitignore", "*.java\n");
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(clean).isFalse();
+    }
+
+    @Test
+    void isClean_stagedFile() throws Exception {
+        // given
+        ageWorkTree();
+        GitUtil.isClean(git.getRepository());
+        write("README.md", "readme\n");
+        git.add().addFilepattern("README.md").call();
+
+        // when
+        boolean clean = GitUtil.isClean(git.getRepository());
+
+        // then
+        assertThat(clean).isFalse();
+    }
+
+    private File snapshotFile() {
+        return new File(git.getRepository().getDirectory(), "git-versioning/status-snapshot");
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = projectDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(UTF_8));
+    }
+
+    /**
+     * Moves modification times of working tree out of racily clean time range.
+     */
+    private void ageWorkTree() throws IOException {
+        long lastModified = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+        try (Stream<Path> paths = Files.walk(projectDir)) {
+            paths.filter(path -> !path.startsWith(projectDir.resolve(".git")))
+                    .forEach(path -> path.toFile().setLastModified(lastModified));
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+}
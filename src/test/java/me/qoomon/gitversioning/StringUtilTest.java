@@ -0,0 +1,105 @@
+package me.qoomon.gitversioning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringUtilTest {
+
+    @Test
+    void substituteText() {
+        // given
+        Map<String, String> substitutions = substitutions("feature", "next-big-thing", "version", "1.0.0");
+
+        // when
+        String text = StringUtil.substituteText("${feature}-${version}", substitutions);
+
+        // then
+        assertThat(text).isEqualTo("next-big-thing-1.0.0");
+    }
+
+    @Test
+    void substituteText_noPlaceholder() {
+        // given
+        String text = "1.0.0";
+
+        // when
+        String substitutedText = StringUtil.substituteText(text, substitutions("version", "2.0.0"));
+
+        // then
+        assertThat(substitutedText).isSameAs(text);
+    }
+
+    @Test
+    void substituteText_valueWithDollarAndBackslash() {
+        // given
+        Map<String, String> substitutions = substitutions("branch", "feature/$1-${version}\\x", "version", "1.0.0");
+
+        // when
+        String text = StringUtil.substituteText("${branch}+${version}", substitutions);
+
+        // then
+        // values are inserted literally and are not substituted again
+        assertThat(text).isEqualTo("feature/$1-${version}\\x+1.0.0");
+    }
+
+    @Test
+    void substituteText_regexKey() {
+        // given
+        Map<String, String> substitutions = substitutions("version.release", "1.0.0");
+
+        // when
+        String text = StringUtil.substituteText("${version.release}-${versionXrelease}", substitutions);
+
+        // then
+        assertThat(text).isEqualTo("1.0.0-${versionXrelease}");
+    }
+
+    @Test
+    void substituteText_unknownPlaceholder() {
+        // given
+        Map<String, String> substitutions = substitutions("version", "1.0.0");
+
+        // when
+        String text = StringUtil.substituteText("${unknown}-${version}", substitutions);
+
+        // then
+        assertThat(text).isEqualTo("${unknown}-1.0.0");
+    }
+
+    @Test
+    void substituteText_unterminatedPlaceholder() {
+        // given
+        Map<String, String> substitutions = substitutions("version", "1.0.0");
+
+        // when
+        String text = StringUtil.substituteText("${version}-${version", substitutions);
+
+        // then
+        assertThat(text).isEqualTo("1.0.0-${version");
+        assertThat(StringUtil.substituteText("${", substitutions)).isEqualTo("${");
+    }
+
+    @Test
+    void substituteText_adjacentPlaceholders() {
+        // given
+        Map<String, String> substitutions = substitutions("major", "1", "minor", "2");
+
+        // when
+        String text = StringUtil.substituteText("${major}${minor}${major}", substitutions);
+
+        // then
+        assertThat(text).isEqualTo("121");
+    }
+
+    private static Map<String, String> substitutions(String... keyValues) {
+        Map<String, String> substitutions = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            substitutions.put(keyValues[i], keyValues[i + 1]);
+        }
+        return substitutions;
+    }
+}
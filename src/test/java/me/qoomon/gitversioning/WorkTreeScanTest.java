@@ -0,0 +1,156 @@
+package me.qoomon.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkTreeScanTest {
+
+    static final int FILE_COUNT = 500;
+
+    /**
+     * Several partitions of index entries, so working tree is scanned in parallel.
+     */
+    static final int PARTITION_ENTRIES = 32;
+
+    @TempDir
+    Path projectDir;
+
+    Git git;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        git = Git.init().setDirectory(projectDir.toFile()).call();
+        write(".gitignore", "target/\n*.log\n");
+        write("pom.xml", "<project/>\n");
+        write("root.txt", "root\n");
+        for (int i = 0; i < FILE_COUNT; i++) {
+            write(String.format("src/dir-%02d/file-%04d.txt", i / 50, i), "file " + i + "\n");
+        }
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("initial commit").call();
+        write("target/classes/App.class", "class");
+        write("src/dir-03/debug.log", "log");
+    }
+
+    @Test
+    void isWorkTreeClean_unchanged() throws Exception {
+        assertSameAsStatus(true);
+    }
+
+    @Test
+    void isWorkTreeClean_modifiedFile() throws Exception {
+        // given
+        write("src/dir-07/file-0399.txt", "changed\n");
+
+        // then
+        assertSameAsStatus(false);
+    }
+
+    @Test
+    void isWorkTreeClean_deletedFile() throws Exception {
+        // given
+        Files.delete(projectDir.resolve("src/dir-09/file-0499.txt"));
+
+        // then
+        assertSameAsStatus(false);
+    }
+
+    @Test
+    void isWorkTreeClean_deletedDirectory() throws Exception {
+        // given
+        deleteRecursively(projectDir.resolve("src/dir-05"));
+
+        // then
+        assertSameAsStatus(false);
+    }
+
+    @Test
+    void isWorkTreeClean_untrackedFileInUntrackedDirectory() throws Exception {
+        // given
+        write("src/new/dir/file.txt", "new\n");
+
+        // then
+        assertSameAsStatus(false);
+    }
+
+    @Test
+    void isWorkTreeClean_untrackedRootFile() throws Exception {
+        // given
+        write("README.md", "new\n");
+
+        // then
+        assertSameAsStatus(false);
+    }
+
+    @Test
+    void isWorkTreeClean_stagedFile() throws Exception {
+        // given
+        write("src/dir-01/staged.txt", "staged\n");
+        git.add().addFilepattern("src/dir-01/staged.txt").call();
+
+        // then
+        assertSameAsStatus(false);
+    }
+
+    @Test
+    void isWorkTreeClean_stagedDeletion() throws Exception {
+        // given
+        git.rm().addFilepattern("root.txt").call();
+
+        // then
+        assertSameAsStatus(false);
+    }
+
+    @Test
+    void isWorkTreeClean_stagedDeletionInSubdirectory() throws Exception {
+        // given
+        git.rm().addFilepattern("src/dir-04/file-0200.txt").call();
+
+        // then
+        assertSameAsStatus(false);
+    }
+
+    @Test
+    void isWorkTreeClean_ignoredFiles() throws Exception {
+        // given
+        write("target/classes/Other.class", "class");
+        write("src/dir-08/trace.log", "log");
+
+        // then
+        assertSameAsStatus(true);
+    }
+
+    private void assertSameAsStatus(boolean expectedClean) throws Exception {
+        // when
+        boolean statusClean = git.status().call().isClean();
+        boolean serialClean = GitUtil.isWorkTreeClean(git.getRepository(), 1);
+        boolean parallelClean = WorkTreeScan.scan(git.getRepository(), 4, PARTITION_ENTRIES).isClean();
+
+        // then
+        assertThat(statusClean).isEqualTo(expectedClean);
+        assertThat(serialClean).isEqualTo(statusClean);
+        assertThat(parallelClean).isEqualTo(statusClean);
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = projectDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(UTF_8));
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.GitRepoSituation;
+import me.qoomon.gitversioning.GitVersioning;
+import me.qoomon.gitversioning.StringUtil;
+import me.qoomon.gitversioning.VersionDescription;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes allocated per call of the versioning hot path, measured by {@link com.sun.management.ThreadMXBean},
+ * run by <code>mvn -P performance verify</code>.
+ * <p>
+ * Budgets are configured by system properties, see <code>allocation.budget.*</code> properties of <code>performance</code>
+ * profile in <code>pom.xml</code>.
+ */
+@Tag("performance")
+class AllocationBudgetIT {
+
+    static final int WARM_UP_CALLS = 20_000;
+    static final int MEASURED_CALLS = 10_000;
+
+    static final long SUBSTITUTE_TEXT_BUDGET_BYTES = Long.getLong("allocation.budget.substituteText.bytes", 1_024);
+    static final long VALUE_GROUP_MAP_BUDGET_BYTES = Long.getLong("allocation.budget.valueGroupMap.bytes", 2_048);
+    static final long DETERMINE_VERSION_BUDGET_BYTES = Long.getLong("allocation.budget.determineVersion.bytes", 8_192);
+
+    static final String COMMIT = "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b";
+
+    final VersionDescription commitVersionDescription = new VersionDescription(null, "${commit.short}");
+    final List<VersionDescription> branchVersionDescriptions = asList(
+            new VersionDescription("master", "${version}"),
+            new VersionDescription("release/(?<release>.+)", "${release}-SNAPSHOT"),
+            new VersionDescription("feature/(?<feature>.+)", "${feature}-${version}"));
+    final List<VersionDescription> tagVersionDescriptions = singletonList(
+            new VersionDescription("v(?<tagVersion>[0-9].*)", "${tagVersion}"));
+
+    @Test
+    void substituteText() {
+        // given
+        Map<String, String> substitutions = new HashMap<>();
+        substitutions.put("feature", "next-big-thing");
+        substitutions.put("version", "1.0.0-SNAPSHOT");
+        substitutions.put("commit.short", "0fc2045");
+
+        // when
+        long bytesPerCall = allocatedBytesPerCall(() ->
+                StringUtil.substituteText("${feature}-${version}+${commit.short}.${unknown}", substitutions));
+
+        // then
+        assertThat(StringUtil.substituteText("${feature}-${version}+${commit.short}.${unknown}", substitutions))
+                .isEqualTo("next-big-thing-1.0.0-SNAPSHOT+0fc2045.${unknown}");
+        assertThat(bytesPerCall).as("substituteText bytes per call").isLessThanOrEqualTo(SUBSTITUTE_TEXT_BUDGET_BYTES);
+    }
+
+    @Test
+    void valueGroupMap() {
+        // given
+        Pattern pattern = Pattern.compile("feature/(?<feature>.+)-(?<ticket>[0-9]+)");
+
+        // when
+        long bytesPerCall = allocatedBytesPerCall(() -> StringUtil.valueGroupMap(pattern, "feature/next-big-thing-42"));
+
+        // then
+        assertThat(StringUtil.valueGroupMap(pattern, "feature/next-big-thing-42"))
+                .containsEntry("feature", "next-big-thing")
+                .containsEntry("ticket", "42");
+        assertThat(bytesPerCall).as("valueGroupMap bytes per call").isLessThanOrEqualTo(VALUE_GROUP_MAP_BUDGET_BYTES);
+    }
+
+    @Test
+    void determineVersion_perModule() {
+        // given
+        // per module versioning determines the version of each module, sharing version descriptions
+        List<GitRepoSituation> moduleSituations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            moduleSituations.add(new GitRepoSituation(true, COMMIT, "feature/module-" + i, singletonList("v1." + i), null));
+        }
+
+        // when
+        int[] module = {0};
+        long bytesPerModule = allocatedBytesPerCall(() -> GitVersioning.determineVersion(
+                moduleSituations.get(module[0]++ % moduleSituations.size()),
+                commitVersionDescription, branchVersionDescriptions, tagVersionDescriptions, "1.0.0-SNAPSHOT"));
+
+        // then
+        assertThat(GitVersioning.determineVersion(moduleSituations.get(7),
+                commitVersionDescription, branchVersionDescriptions, tagVersionDescriptions, "1.0.0-SNAPSHOT")
+                .getVersion()).isEqualTo("module-7-1.0.0-SNAPSHOT");
+        assertThat(bytesPerModule).as("determineVersion bytes per module").isLessThanOrEqualTo(DETERMINE_VERSION_BUDGET_BYTES);
+    }
+
+    private static long allocatedBytesPerCall(Runnable call) {
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            call.run();
+        }
+        long startBytes = threadAllocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.run();
+        }
+        return (threadAllocatedBytes() - startBytes) / MEASURED_CALLS;
+    }
+
+    private static long threadAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(
+                Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,84 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.graph.DefaultProjectDependencyGraph;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangedModulesTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void select() throws Exception {
+        // given
+        MavenProject api = project("api");
+        MavenProject logic = project("logic", api);
+        MavenProject app = project("app", logic);
+        MavenProject tools = project("tools");
+        List<MavenProject> projects = asList(api, logic, app, tools);
+
+        // when
+        List<MavenProject> selectedProjects = ChangedModules.select(
+                projects, new DefaultProjectDependencyGraph(projects), singletonList(projectDir.resolve("logic").toFile()));
+
+        // then
+        assertThat(selectedProjects).containsExactly(logic, app);
+    }
+
+    @Test
+    void select_noChanges() throws Exception {
+        // given
+        MavenProject api = project("api");
+        List<MavenProject> projects = singletonList(api);
+
+        // when
+        List<MavenProject> selectedProjects = ChangedModules.select(
+                projects, new DefaultProjectDependencyGraph(projects), emptyList());
+
+        // then
+        assertThat(selectedProjects).isEmpty();
+    }
+
+    @Test
+    void format() {
+        // given
+        File moduleA = projectDir.resolve("a").toFile();
+        File nestedModule = projectDir.resolve("b").resolve("nested").toFile();
+
+        // when
+        String paths = ChangedModules.format(projectDir.toFile(), asList(nestedModule, projectDir.toFile(), moduleA));
+
+        // then
+        assertThat(paths).isEqualTo(".,a,b/nested");
+    }
+
+    private MavenProject project(String artifactId, MavenProject... dependencies) {
+        Model model = new Model();
+        model.setGroupId("test");
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0.0");
+        for (MavenProject dependency : dependencies) {
+            Dependency modelDependency = new Dependency();
+            modelDependency.setGroupId(dependency.getGroupId());
+            modelDependency.setArtifactId(dependency.getArtifactId());
+            modelDependency.setVersion(dependency.getVersion());
+            model.addDependency(modelDependency);
+        }
+        MavenProject project = new MavenProject(model);
+        project.setFile(projectDir.resolve(artifactId).resolve("pom.xml").toFile());
+        return project;
+    }
+}
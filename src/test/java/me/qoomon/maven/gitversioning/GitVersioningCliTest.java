@@ -0,0 +1,157 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.GitVersioningCli;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GitVersioningCliTest {
+
+    @TempDir
+    Path projectDir;
+
+    Git git;
+
+    RevCommit headCommit;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        git = Git.init().setDirectory(projectDir.toFile()).call();
+        write("pom.xml", "<project>\n"
+                + "    <parent><groupId>test</groupId><artifactId>parent</artifactId><version>0.9.0</version></parent>\n"
+                + "    <artifactId>test</artifactId>\n"
+                + "    <version>1.0.0-SNAPSHOT</version>\n"
+                + "</project>\n");
+        write(".mvn/maven-git-versioning-extension.xml", "<gitVersioning>\n"
+                + "    <branch>\n"
+                + "        <pattern><![CDATA[feature/(?<feature>.+)]]></pattern>\n"
+                + "        <versionFormat>${feature}-SNAPSHOT</versionFormat>\n"
+                + "    </branch>\n"
+                + "    <branch>\n"
+                + "        <pattern>.*</pattern>\n"
+                + "        <versionFormat>${version}</versionFormat>\n"
+                + "    </branch>\n"
+                + "    <tag>\n"
+                + "        <pattern><![CDATA[v(?<tagVersion>[0-9].*)]]></pattern>\n"
+                + "        <versionFormat>${tagVersion}</versionFormat>\n"
+                + "    </tag>\n"
+                + "    <commit>\n"
+                + "        <versionFormat>${commit.short}</versionFormat>\n"
+                + "    </commit>\n"
+                + "</gitVersioning>\n");
+        git.add().addFilepattern(".").call();
+        headCommit = git.commit().setMessage("initial commit").call();
+    }
+
+    @Test
+    void run_branch() throws Exception {
+        // when
+        String output = run("--directory", projectDir.toString());
+
+        // then
+        assertThat(output).isEqualTo("1.0.0-SNAPSHOT\n");
+    }
+
+    @Test
+    void run_providedBranch() throws Exception {
+        // when
+        String output = GitVersioningCli.run(new String[]{"--directory", projectDir.toString()},
+                singletonMap("VERSIONING_GIT_BRANCH", "feature/next"));
+
+        // then
+        assertThat(output).isEqualTo("next-SNAPSHOT\n");
+    }
+
+    @Test
+    void run_detachedTag() throws Exception {
+        // given
+        git.tag().setName("v2.1.0").setMessage("release").call();
+        git.checkout().setName(headCommit.name()).call();
+
+        // when
+        String output = run("--directory", projectDir.toString(), "--format", "properties");
+
+        // then
+        assertThat(output).isEqualTo(""
+                + "git.commit.timestamp=" + Instant.ofEpochSecond(headCommit.getCommitTime()).toString().replace(":", "\\:") + "\n"
+                + "git.commit=" + headCommit.name() + "\n"
+                + "git.ref.1=2.1.0\n"
+                + "git.ref.tagVersion=2.1.0\n"
+                + "git.ref=v2.1.0\n"
+                + "git.tag=v2.1.0\n"
+                + "version=2.1.0\n");
+    }
+
+    @Test
+    void run_detachedCommit() throws Exception {
+        // given
+        git.checkout().setName(headCommit.name()).call();
+
+        // when
+        String output = run("--directory", projectDir.toString(), "--project-version", "3.0.0");
+
+        // then
+        assertThat(output).isEqualTo(headCommit.name().substring(0, 7) + "\n");
+    }
+
+    @Test
+    void run_tagWithoutPattern() throws Exception {
+        // given
+        write(".mvn/maven-git-versioning-extension.xml", "<gitVersioning>\n"
+                + "    <tag>\n"
+                + "        <versionFormat>${tag}</versionFormat>\n"
+                + "    </tag>\n"
+                + "</gitVersioning>\n");
+        git.tag().setName("release-3").setMessage("release").call();
+        git.checkout().setName(headCommit.name()).call();
+
+        // when
+        String output = run("--directory", projectDir.toString());
+
+        // then
+        assertThat(output).isEqualTo("release-3\n");
+    }
+
+    @Test
+    void run_unknownConfigElement() throws Exception {
+        // given
+        write(".mvn/maven-git-versioning-extension.xml", "<gitVersioning>\n"
+                + "    <branches/>\n"
+                + "</gitVersioning>\n");
+
+        // then
+        assertThatThrownBy(() -> run("--directory", projectDir.toString()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown element <branches> at line 2");
+    }
+
+    @Test
+    void run_unknownArgument() {
+        assertThatThrownBy(() -> run("--directory", projectDir.toString(), "--verbose"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("unknown argument '--verbose'");
+    }
+
+    private static String run(String... args) throws IOException {
+        return GitVersioningCli.run(args, emptyMap());
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = projectDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(UTF_8));
+    }
+}
@@ -1,7 +1,8 @@
 package me.qoomon.maven.gitversioning;
 
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import me.qoomon.maven.gitversioning.Configuration.VersionDescription;
+import me.qoomon.gitversioning.Configuration;
+import me.qoomon.gitversioning.Configuration.VersionDescriptionConfig;
+import org.apache.maven.it.VerificationException;
 import org.apache.maven.it.Verifier;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.DependencyManagement;
@@ -12,16 +13,20 @@ import org.eclipse.jgit.revwalk.RevCommit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import static me.qoomon.gitversioning.GitConstants.NO_COMMIT;
-import static me.qoomon.maven.gitversioning.MavenUtil.readModel;
 import static me.qoomon.maven.gitversioning.VersioningMojo.GIT_VERSIONING_POM_NAME;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
 public class GitVersioningExtensionIT {
@@ -62,7 +67,7 @@ public class GitVersioningExtensionIT {
         String expectedVersion = NO_COMMIT;
         assertThat(log).contains("Building " + pomModel.getArtifactId() + " " + expectedVersion);
 
-        Model gitVersionedPomModel = readModel(projectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+        Model gitVersionedPomModel = readModel(projectDir.resolve(MAVEN_BUILD_DIRECTORY).resolve(GIT_VERSIONING_POM_NAME).toFile());
         assertThat(gitVersionedPomModel).satisfies(it -> assertSoftly(softly -> {
             softly.assertThat(it.getModelVersion()).isEqualTo(pomModel.getModelVersion());
             softly.assertThat(it.getGroupId()).isEqualTo(pomModel.getGroupId());
@@ -87,7 +92,7 @@ public class GitVersioningExtensionIT {
         writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
         writeExtensionsFile(projectDir);
 
-        VersionDescription branchVersionDescription = new VersionDescription();
+        VersionDescriptionConfig branchVersionDescription = new VersionDescriptionConfig();
         branchVersionDescription.pattern = ".*";
         branchVersionDescription.versionFormat = "${branch}-gitVersioning";
         extensionConfig.branch.add(branchVersionDescription);
@@ -102,7 +107,7 @@ public class GitVersioningExtensionIT {
         assertThat(log).doesNotContain("[ERROR]");
         String expectedVersion = givenBranch.replace("/", "-") + "-gitVersioning";
         assertThat(log).contains("Building " + pomModel.getArtifactId() + " " + expectedVersion);
-        Model gitVersionedPomModel = readModel(projectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+        Model gitVersionedPomModel = readModel(projectDir.resolve(MAVEN_BUILD_DIRECTORY).resolve(GIT_VERSIONING_POM_NAME).toFile());
         assertThat(gitVersionedPomModel).satisfies(it -> assertSoftly(softly -> {
             softly.assertThat(it.getModelVersion()).isEqualTo(pomModel.getModelVersion());
             softly.assertThat(it.getGroupId()).isEqualTo(pomModel.getGroupId());
@@ -128,7 +133,7 @@ public class GitVersioningExtensionIT {
         writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
         writeExtensionsFile(projectDir);
 
-        VersionDescription tagVersionDescription = new VersionDescription();
+        VersionDescriptionConfig tagVersionDescription = new VersionDescriptionConfig();
         tagVersionDescription.pattern = ".*";
         tagVersionDescription.versionFormat = "${tag}-gitVersioning";
         extensionConfig.tag.add(tagVersionDescription);
@@ -143,7 +148,7 @@ public class GitVersioningExtensionIT {
         assertThat(log).doesNotContain("[ERROR]");
         String expectedVersion = givenTag + "-gitVersioning";
         assertThat(log).contains("Building " + pomModel.getArtifactId() + " " + expectedVersion);
-        Model gitVersionedPomModel = readModel(projectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+        Model gitVersionedPomModel = readModel(projectDir.resolve(MAVEN_BUILD_DIRECTORY).resolve(GIT_VERSIONING_POM_NAME).toFile());
         assertThat(gitVersionedPomModel).satisfies(it -> assertSoftly(softly -> {
             softly.assertThat(it.getModelVersion()).isEqualTo(pomModel.getModelVersion());
             softly.assertThat(it.getGroupId()).isEqualTo(pomModel.getGroupId());
@@ -213,7 +218,7 @@ public class GitVersioningExtensionIT {
         assertThat(log).doesNotContain("[ERROR]");
         String expectedVersion = NO_COMMIT;
         assertThat(log).contains("Building " + pomModel.getArtifactId() + " " + expectedVersion);
-        Model gitVersionedPomModel = readModel(projectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+        Model gitVersionedPomModel = readModel(projectDir.resolve(MAVEN_BUILD_DIRECTORY).resolve(GIT_VERSIONING_POM_NAME).toFile());
         assertThat(gitVersionedPomModel).satisfies(it -> assertSoftly(softly -> {
             softly.assertThat(it.getModelVersion()).isEqualTo(pomModel.getModelVersion());
             softly.assertThat(it.getGroupId()).isEqualTo(pomModel.getGroupId());
@@ -225,7 +230,7 @@ public class GitVersioningExtensionIT {
             );
         }));
 
-        Model apiGitVersionedPomModel = readModel(apiProjectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+        Model apiGitVersionedPomModel = readModel(apiProjectDir.resolve(MAVEN_BUILD_DIRECTORY).resolve(GIT_VERSIONING_POM_NAME).toFile());
         assertThat(apiGitVersionedPomModel).satisfies(it -> assertSoftly(softly -> {
             softly.assertThat(it.getModelVersion()).isEqualTo(apiPomModel.getModelVersion());
             softly.assertThat(it.getGroupId()).isEqualTo(apiPomModel.getGroupId());
@@ -237,7 +242,7 @@ public class GitVersioningExtensionIT {
             );
         }));
 
-        Model apiGitVersionedPomModelLogic = readModel(logicProjectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+        Model apiGitVersionedPomModelLogic = readModel(logicProjectDir.resolve(MAVEN_BUILD_DIRECTORY).resolve(GIT_VERSIONING_POM_NAME).toFile());
         assertThat(apiGitVersionedPomModelLogic).satisfies(it -> assertSoftly(softly -> {
             softly.assertThat(it.getModelVersion()).isEqualTo(logicPomModel.getModelVersion());
             softly.assertThat(it.getGroupId()).isEqualTo(logicPomModel.getGroupId());
@@ -250,6 +255,106 @@ public class GitVersioningExtensionIT {
         }));
     }
 
+    @Test
+    void commitVersioning_nonRecursive() throws Exception {
+        // Given
+        Git.init().setDirectory(projectDir.toFile()).call();
+
+        pomModel.setPackaging("pom");
+        pomModel.addModule("api");
+        writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+        writeExtensionsFile(projectDir);
+        writeExtensionConfigFile(projectDir, extensionConfig);
+
+        Path apiProjectDir = Files.createDirectories(projectDir.resolve("api"));
+        writeModel(apiProjectDir.resolve("pom.xml").toFile(), new Model() {{
+            setModelVersion(pomModel.getModelVersion());
+            setParent(new Parent() {{
+                setGroupId(pomModel.getGroupId());
+                setArtifactId(pomModel.getArtifactId());
+                setVersion(pomModel.getVersion());
+            }});
+            setArtifactId("api");
+        }});
+
+        // When
+        Verifier verifier = new Verifier(projectDir.toFile().getAbsolutePath());
+        verifier.setAutoclean(false);
+        verifier.addCliOption("-N");
+        verifier.executeGoal("verify");
+        String log = getLog(verifier);
+
+        // Then
+        assertThat(log).doesNotContain("[ERROR]");
+        assertThat(log).doesNotContain("api - set project version");
+        String metrics = new String(Files.readAllBytes(projectDir.resolve(MAVEN_BUILD_DIRECTORY).resolve("git-versioning-metrics.json")));
+        assertThat(metrics).contains("\"model.process\"").doesNotContain("\"model.prepare\"");
+    }
+
+    @Test
+    void commitVersioning_batchPomWrite() throws Exception {
+        // Given
+        Git.init().setDirectory(projectDir.toFile()).call();
+
+        pomModel.setPackaging("pom");
+        pomModel.addModule("api");
+        writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+        writeExtensionsFile(projectDir);
+        writeExtensionConfigFile(projectDir, extensionConfig);
+
+        Path apiProjectDir = Files.createDirectories(projectDir.resolve("api"));
+        writeModel(apiProjectDir.resolve("pom.xml").toFile(), new Model() {{
+            setModelVersion(pomModel.getModelVersion());
+            setParent(new Parent() {{
+                setGroupId(pomModel.getGroupId());
+                setArtifactId(pomModel.getArtifactId());
+                setVersion(pomModel.getVersion());
+            }});
+            setArtifactId("api");
+        }});
+
+        // When
+        Verifier verifier = new Verifier(projectDir.toFile().getAbsolutePath());
+        verifier.setAutoclean(false);
+        verifier.addCliOption("-Dgit.batchPomWrite=true");
+        verifier.executeGoal("verify");
+        String log = getLog(verifier);
+
+        // Then
+        assertThat(log).doesNotContain("[ERROR]");
+        assertThat(log).contains("Generating git versioned POMs of 2 projects");
+        assertThat(log).doesNotContain("Generating git versioned POM of project");
+        Model gitVersionedPomModel = readModel(projectDir.resolve(MAVEN_BUILD_DIRECTORY).resolve(GIT_VERSIONING_POM_NAME).toFile());
+        assertThat(gitVersionedPomModel.getVersion()).isEqualTo(NO_COMMIT);
+        Model apiGitVersionedPomModel = readModel(apiProjectDir.resolve(MAVEN_BUILD_DIRECTORY).resolve(GIT_VERSIONING_POM_NAME).toFile());
+        assertThat(apiGitVersionedPomModel.getParent().getVersion()).isEqualTo(NO_COMMIT);
+        assertThat(apiGitVersionedPomModel.getVersion()).isNull();
+    }
+
+    @Test
+    void commitVersioning_batchPomWrite_failure() throws Exception {
+        // Given
+        Git.init().setDirectory(projectDir.toFile()).call();
+
+        writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+        writeExtensionsFile(projectDir);
+        writeExtensionConfigFile(projectDir, extensionConfig);
+        // build directory can not be created
+        Files.write(projectDir.resolve("target"), new byte[0]);
+
+        // When
+        Verifier verifier = new Verifier(projectDir.toFile().getAbsolutePath());
+        verifier.setAutoclean(false);
+        verifier.addCliOption("-Dgit.batchPomWrite=true");
+        assertThatThrownBy(() -> verifier.executeGoal("verify"))
+                .isInstanceOf(VerificationException.class);
+        String log = getLog(verifier);
+
+        // Then
+        assertThat(log).contains("[ERROR] Could not generate git versioned POMs");
+        assertThat(log).doesNotContain("Building " + pomModel.getArtifactId());
+    }
+
     private String getLog(Verifier verifier) throws IOException {
         return new String(Files.readAllBytes(Paths.get(verifier.getBasedir(), verifier.getLogFileName())));
     }
@@ -269,10 +374,47 @@ public class GitVersioningExtensionIT {
     private File writeExtensionConfigFile(Path projectDir, Configuration config) throws Exception {
         Path mvnDotDir = Files.createDirectories(projectDir.resolve(".mvn"));
         File configFile = mvnDotDir.resolve("maven-git-versioning-extension.xml").toFile();
-        new XmlMapper().writeValue(configFile, config);
+        try (OutputStream output = Files.newOutputStream(configFile.toPath())) {
+            XMLStreamWriter writer = XMLOutputFactory.newFactory().createXMLStreamWriter(output, "UTF-8");
+            writer.writeStartElement("gitVersioning");
+            writeElement(writer, "perModule", String.valueOf(config.perModule));
+            if (config.commit != null) {
+                writer.writeStartElement("commit");
+                writeElement(writer, "versionFormat", config.commit.versionFormat);
+                writer.writeEndElement();
+            }
+            for (VersionDescriptionConfig description : config.branch) {
+                writeVersionDescription(writer, "branch", description);
+            }
+            for (VersionDescriptionConfig description : config.tag) {
+                writeVersionDescription(writer, "tag", description);
+            }
+            writer.writeEndElement();
+            writer.close();
+        }
         return configFile;
     }
 
+    private static Model readModel(File pomFile) throws IOException {
+        return new ModelCache().read(pomFile);
+    }
+
+    private static void writeVersionDescription(XMLStreamWriter writer, String element, VersionDescriptionConfig description)
+            throws XMLStreamException {
+        writer.writeStartElement(element);
+        writeElement(writer, "pattern", description.pattern);
+        writeElement(writer, "versionFormat", description.versionFormat);
+        writer.writeEndElement();
+    }
+
+    private static void writeElement(XMLStreamWriter writer, String element, String value) throws XMLStreamException {
+        if (value != null) {
+            writer.writeStartElement(element);
+            writer.writeCharacters(value);
+            writer.writeEndElement();
+        }
+    }
+
     private Model writeModel(File pomFile, Model pomModel) throws IOException {
         MavenUtil.writeModel(pomFile, pomModel);
         return pomModel;
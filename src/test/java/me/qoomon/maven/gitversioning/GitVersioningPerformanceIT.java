@@ -0,0 +1,499 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.qoomon.gitversioning.BranchRefIndex;
+import me.qoomon.gitversioning.CommitGraphWriter;
+import me.qoomon.gitversioning.GitRepoSituation;
+import me.qoomon.gitversioning.GitUtil;
+import me.qoomon.gitversioning.Timings;
+import org.apache.maven.it.Verifier;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.joining;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+
+/**
+ * Performance tests on generated large repositories, run by <code>mvn -P performance verify</code>.
+ * <p>
+ * Repository scale and budgets are configured by system properties, see <code>performance</code> profile in <code>pom.xml</code>.
+ */
+@Tag("performance")
+class GitVersioningPerformanceIT {
+
+    static final int FILE_COUNT = Integer.getInteger("performance.files", 100_000);
+    static final int COMMIT_COUNT = Integer.getInteger("performance.commits", 50_000);
+    static final int TAG_COUNT = Integer.getInteger("performance.tags", 50_000);
+    static final int MODULE_COUNT = Integer.getInteger("performance.modules", 2_000);
+    static final int DEEP_HISTORY_COMMIT_COUNT = Integer.getInteger("performance.deepHistory.commits", 300_000);
+    static final int PER_MODULE_MODULE_COUNT = Integer.getInteger("performance.perModule.modules", 500);
+    static final int PER_MODULE_COMMIT_COUNT = Integer.getInteger("performance.perModule.commits", 5_000);
+    static final int REMOTE_BRANCH_COUNT = Integer.getInteger("performance.remoteBranches", 20_000);
+    static final int DEPENDENCY_COUNT = Integer.getInteger("performance.dependencies", 20_000);
+
+    static final long SITUATION_BUDGET_MILLIS = Long.getLong("performance.budget.situation.millis", 30_000);
+    static final long SITUATION_BUDGET_MEGABYTES = Long.getLong("performance.budget.situation.megabytes", 2_048);
+    static final long REACTOR_BUDGET_MILLIS = Long.getLong("performance.budget.reactor.millis", 300_000);
+    static final long MODEL_PROCESS_BUDGET_MILLIS = Long.getLong("performance.budget.modelProcess.millis", 30_000);
+    static final long DESCRIBE_BUDGET_MILLIS = Long.getLong("performance.budget.describe.millis", 2_000);
+    static final long MODULE_SITUATIONS_BUDGET_MILLIS = Long.getLong("performance.budget.moduleSituations.millis", 5_000);
+    static final long CHANGED_MODULES_BUDGET_MILLIS = Long.getLong("performance.budget.changedModules.millis", 2_000);
+    static final long WARM_STATUS_BUDGET_MILLIS = Long.getLong("performance.budget.warmStatus.millis", 2_000);
+    static final long ABBREV_BUDGET_MICROS = Long.getLong("performance.budget.abbrev.micros", 2_000);
+    static final long FULL_STATUS_BUDGET_MILLIS = Long.getLong("performance.budget.fullStatus.millis", 5_000);
+    static final long BRANCH_REFS_BUDGET_MILLIS = Long.getLong("performance.budget.branchRefs.millis", 500);
+    static final long PROJECT_POMS_BUDGET_MILLIS = Long.getLong("performance.budget.projectPoms.millis", 200);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void situation_largeRepository() throws Exception {
+        // Given
+        try (SyntheticRepository repository = SyntheticRepository.init(tempDir)) {
+            repository.addFiles(FILE_COUNT)
+                    .commit(COMMIT_COUNT)
+                    .tag(TAG_COUNT);
+        }
+        GitUtil.situation(tempDir.toFile()); // warm up class loading
+
+        // When
+        long allocatedBytesBefore = threadAllocatedBytes();
+        long startNanos = System.nanoTime();
+        GitRepoSituation situation = GitUtil.situation(tempDir.toFile());
+        long durationMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        long allocatedMegabytes = (threadAllocatedBytes() - allocatedBytesBefore) / (1024 * 1024);
+
+        // Then
+        System.out.println("situation: " + durationMillis + " ms, " + allocatedMegabytes + " MB allocated");
+        assertThat(situation.isClean()).isTrue();
+        assertThat(situation.getHeadBranch()).isEqualTo("master");
+        assertThat(situation.getHeadDescribe()).isNotNull();
+        assertThat(durationMillis).isLessThanOrEqualTo(SITUATION_BUDGET_MILLIS);
+        assertThat(allocatedMegabytes).isLessThanOrEqualTo(SITUATION_BUDGET_MEGABYTES);
+    }
+
+    @Test
+    void status_warmRepository() throws Exception {
+        // Given
+        try (SyntheticRepository syntheticRepository = SyntheticRepository.init(tempDir)) {
+            syntheticRepository.addFiles(FILE_COUNT)
+                    .commit(1);
+            Repository repository = syntheticRepository.getRepository();
+            File statusSnapshotFile = new File(repository.getDirectory(), "git-versioning/status-snapshot");
+            GitUtil.isClean(repository); // warm up class loading
+            Files.delete(statusSnapshotFile.toPath());
+
+            long startNanos = System.nanoTime();
+            boolean coldClean = GitUtil.isClean(repository);
+            long coldMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            // When
+            startNanos = System.nanoTime();
+            boolean warmClean = GitUtil.isClean(repository);
+            long warmMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            Files.write(tempDir.resolve("files/dir-0000/file-0000000.txt"), "changed\n".getBytes());
+            startNanos = System.nanoTime();
+            boolean changedClean = GitUtil.isClean(repository);
+            long changedMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            // Then
+            System.out.println("status: " + FILE_COUNT + " files, full " + coldMillis + " ms, "
+                    + "snapshot " + warmMillis + " ms, snapshot with changed file " + changedMillis + " ms");
+            assertThat(coldClean).isTrue();
+            assertThat(warmClean).isTrue();
+            assertThat(changedClean).isFalse();
+            assertThat(warmMillis).isLessThanOrEqualTo(WARM_STATUS_BUDGET_MILLIS);
+        }
+    }
+
+    @Test
+    void status_parallelScaling() throws Exception {
+        // Given
+        try (SyntheticRepository syntheticRepository = SyntheticRepository.init(tempDir)) {
+            syntheticRepository.addFiles(FILE_COUNT)
+                    .commit(1);
+            Repository repository = syntheticRepository.getRepository();
+            int availableProcessors = Runtime.getRuntime().availableProcessors();
+            Set<Integer> parallelisms = new TreeSet<>();
+            for (int parallelism = 1; parallelism < availableProcessors; parallelism *= 2) {
+                parallelisms.add(parallelism);
+            }
+            parallelisms.add(availableProcessors);
+            GitUtil.isWorkTreeClean(repository, availableProcessors); // warm up class loading
+
+            // When
+            Map<Integer, Long> durationMillis = new LinkedHashMap<>();
+            for (int parallelism : parallelisms) {
+                long startNanos = System.nanoTime();
+                boolean clean = GitUtil.isWorkTreeClean(repository, parallelism);
+                durationMillis.put(parallelism, NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                assertThat(clean).isTrue();
+            }
+
+            // Then
+            System.out.println("full status: " + FILE_COUNT + " files, " + durationMillis.entrySet().stream()
+                    .map(entry -> entry.getKey() + " threads " + entry.getValue() + " ms")
+                    .collect(joining(", ")));
+            assertThat(durationMillis.get(availableProcessors)).isLessThanOrEqualTo(FULL_STATUS_BUDGET_MILLIS);
+        }
+    }
+
+    @Test
+    void describe_deepHistory() throws Exception {
+        // Given
+        try (SyntheticRepository syntheticRepository = SyntheticRepository.init(tempDir)) {
+            syntheticRepository.commit(DEEP_HISTORY_COMMIT_COUNT)
+                    .tag(1); // sparse tags, only root commit is tagged
+            Repository repository = syntheticRepository.getRepository();
+            File describeCacheFile = new File(repository.getDirectory(), "git-versioning/describe-cache");
+
+            GitUtil.describe(repository); // warm up
+            Files.delete(describeCacheFile.toPath());
+            long startNanos = System.nanoTime();
+            String revWalkDescribe = GitUtil.describe(repository);
+            long revWalkMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            // When
+            CommitGraphWriter.write(repository);
+            Files.delete(describeCacheFile.toPath());
+            startNanos = System.nanoTime();
+            String commitGraphDescribe = GitUtil.describe(repository);
+            long commitGraphMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            syntheticRepository.commit(10);
+            startNanos = System.nanoTime();
+            String incrementalDescribe = GitUtil.describe(repository);
+            long incrementalMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            // Then
+            System.out.println("describe: " + DEEP_HISTORY_COMMIT_COUNT + " commits, rev walk " + revWalkMillis + " ms, "
+                    + "commit-graph " + commitGraphMillis + " ms, incremental " + incrementalMillis + " ms");
+            assertThat(commitGraphDescribe).isEqualTo(revWalkDescribe)
+                    .startsWith("v0.0.0-" + (DEEP_HISTORY_COMMIT_COUNT - 1) + "-g");
+            assertThat(incrementalDescribe).isEqualTo(Git.wrap(repository).describe().call())
+                    .startsWith("v0.0.0-" + (DEEP_HISTORY_COMMIT_COUNT + 9) + "-g");
+            assertThat(commitGraphMillis).isLessThanOrEqualTo(DESCRIBE_BUDGET_MILLIS);
+            assertThat(incrementalMillis).isLessThanOrEqualTo(DESCRIBE_BUDGET_MILLIS);
+        }
+    }
+
+    @Test
+    void describe_tagPattern() throws Exception {
+        // Given
+        try (SyntheticRepository syntheticRepository = SyntheticRepository.init(tempDir)) {
+            syntheticRepository.commit(COMMIT_COUNT)
+                    .tag(TAG_COUNT);
+            Repository repository = syntheticRepository.getRepository();
+            File describeCacheFile = new File(repository.getDirectory(), "git-versioning/describe-cache");
+            // tags of latest major version only
+            List<Pattern> tagPatterns = singletonList(Pattern.compile("v" + (TAG_COUNT - 1) / 10000 + "\\..+"));
+
+            GitUtil.describe(repository); // warm up
+            Files.delete(describeCacheFile.toPath());
+            long startNanos = System.nanoTime();
+            String allTagsDescribe = GitUtil.describe(repository);
+            long allTagsMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            // When
+            Files.delete(describeCacheFile.toPath());
+            startNanos = System.nanoTime();
+            String tagPatternDescribe = GitUtil.describe(repository, tagPatterns);
+            long tagPatternMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            // Then
+            System.out.println("describe: " + TAG_COUNT + " tags, all tags " + allTagsMillis + " ms, "
+                    + "tag pattern " + tagPatternMillis + " ms");
+            assertThat(tagPatternDescribe).isEqualTo(allTagsDescribe);
+            assertThat(tagPatternMillis).isLessThanOrEqualTo(DESCRIBE_BUDGET_MILLIS);
+        }
+    }
+
+    @Test
+    void abbreviate_largeRepository() throws Exception {
+        // Given
+        List<ObjectId> commits;
+        try (SyntheticRepository syntheticRepository = SyntheticRepository.init(tempDir)) {
+            syntheticRepository.commit(COMMIT_COUNT);
+            commits = syntheticRepository.getCommits();
+        }
+        FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().findGitDir(tempDir.toFile());
+        try (Repository repository = repositoryBuilder.build()) {
+            GitUtil.abbreviate(repository, commits.get(0), 7); // warm up class loading
+        }
+
+        // When
+        // a build abbreviates once per opened repository, so pack indexes are not loaded yet
+        int sampleCount = 20;
+        long abbrevNanos = 0;
+        long jgitNanos = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            ObjectId commit = commits.get(i * (commits.size() / sampleCount));
+            try (Repository repository = repositoryBuilder.build();
+                 ObjectReader reader = repository.newObjectReader()) {
+                long startNanos = System.nanoTime();
+                String abbreviation = GitUtil.abbreviate(repository, commit, 7);
+                abbrevNanos += System.nanoTime() - startNanos;
+
+                startNanos = System.nanoTime();
+                String jgitAbbreviation = reader.abbreviate(commit, 7).name();
+                jgitNanos += System.nanoTime() - startNanos;
+
+                assertThat(abbreviation).isEqualTo(jgitAbbreviation);
+            }
+        }
+        long abbrevMicros = NANOSECONDS.toMicros(abbrevNanos / sampleCount);
+        long jgitMicros = NANOSECONDS.toMicros(jgitNanos / sampleCount);
+
+        // Then
+        System.out.println("abbreviate: " + commits.size() + " commits, pack index lookup " + abbrevMicros + " us, "
+                + "jgit " + jgitMicros + " us");
+        assertThat(abbrevMicros).isLessThanOrEqualTo(ABBREV_BUDGET_MICROS);
+    }
+
+    @Test
+    void branchRefs_manyRemoteBranches() throws Exception {
+        // Given
+        try (SyntheticRepository syntheticRepository = SyntheticRepository.init(tempDir)) {
+            syntheticRepository.commit(COMMIT_COUNT)
+                    .remoteBranches(REMOTE_BRANCH_COUNT)
+                    .detachHead();
+        }
+        FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().findGitDir(tempDir.toFile());
+        List<Pattern> branchRefPatterns = asList(Pattern.compile("refs/remotes/origin/feature/.+"), Pattern.compile("refs/heads/.+"));
+        try (Repository repository = repositoryBuilder.build()) {
+            BranchRefIndex.read(repository); // warm up class loading
+        }
+
+        // When
+        // a build reads branch refs once per opened repository, so packed-refs is not cached yet
+        String branch;
+        long branchRefsMillis;
+        try (Repository repository = repositoryBuilder.build()) {
+            ObjectId head = repository.resolve(HEAD);
+            long startNanos = System.nanoTime();
+            branch = BranchRefIndex.read(repository).branch(head, branchRefPatterns);
+            branchRefsMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+
+        // Then
+        System.out.println("branch refs: " + REMOTE_BRANCH_COUNT + " remote branches, " + branchRefsMillis + " ms");
+        assertThat(branch).isEqualTo(String.format("feature/branch-%06d", REMOTE_BRANCH_COUNT - 1));
+        assertThat(branchRefsMillis).isLessThanOrEqualTo(BRANCH_REFS_BUDGET_MILLIS);
+    }
+
+    @Test
+    void projectPoms_largeDependencyGraph() throws Exception {
+        // Given
+        // maven reads a model for every dependency pom of the local repository and several times for every module pom
+        File localRepository = tempDir.resolve("repository").toFile();
+        List<File> pomFiles = new ArrayList<>();
+        for (int i = 0; i < DEPENDENCY_COUNT; i++) {
+            String version = "1." + i;
+            Path dependencyPomFile = tempDir.resolve(String.format("repository/org/example/lib-%06d/%s/lib-%06d-%s.pom", i, version, i, version));
+            Files.createDirectories(dependencyPomFile.getParent());
+            pomFiles.add(Files.createFile(dependencyPomFile).toFile());
+        }
+        for (int i = 0; i < MODULE_COUNT; i++) {
+            Path modulePomFile = tempDir.resolve(String.format("project/module-%06d/pom.xml", i));
+            Files.createDirectories(modulePomFile.getParent());
+            File pomFile = Files.createFile(modulePomFile).toFile();
+            pomFiles.add(pomFile);
+            pomFiles.add(pomFile);
+            pomFiles.add(pomFile);
+        }
+
+        // When
+        long uncachedFileChecks = 0;
+        long startNanos = System.nanoTime();
+        int uncachedProjectPoms = 0;
+        for (File pomFile : pomFiles) {
+            // file system is checked before pom file name, like before session scoped classification
+            uncachedFileChecks += 2;
+            if (pomFile.exists() && pomFile.isFile() && pomFile.getName().endsWith(".xml")) {
+                uncachedProjectPoms++;
+            }
+        }
+        long uncachedMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        ProjectPoms projectPoms = new ProjectPoms(localRepository);
+        startNanos = System.nanoTime();
+        int projectPomCount = 0;
+        for (File pomFile : pomFiles) {
+            if (projectPoms.isProjectPom(pomFile)) {
+                projectPomCount++;
+            }
+        }
+        long projectPomsMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        // Then
+        // only first classification of each module pom checks the file system
+        System.out.println("project poms: " + DEPENDENCY_COUNT + " dependency poms, " + MODULE_COUNT + " module poms, "
+                + "uncached " + uncachedMillis + " ms (" + uncachedFileChecks + " file checks), "
+                + "cached " + projectPomsMillis + " ms (" + MODULE_COUNT + " file checks)");
+        assertThat(projectPomCount).isEqualTo(uncachedProjectPoms).isEqualTo(3 * MODULE_COUNT);
+        assertThat(projectPomsMillis).isLessThanOrEqualTo(PROJECT_POMS_BUDGET_MILLIS);
+    }
+
+    @Test
+    void moduleSituations_largeReactor() throws Exception {
+        // Given
+        List<ObjectId> commits;
+        try (SyntheticRepository repository = SyntheticRepository.init(tempDir)) {
+            repository.addReactor(PER_MODULE_MODULE_COUNT)
+                    .commit(1)
+                    .commitModuleChanges(PER_MODULE_MODULE_COUNT, PER_MODULE_COMMIT_COUNT);
+            commits = repository.getCommits();
+        }
+        List<File> moduleDirectories = new ArrayList<>();
+        for (int i = 0; i < PER_MODULE_MODULE_COUNT; i++) {
+            moduleDirectories.add(tempDir.resolve(String.format("module-%04d", i)).toFile());
+        }
+        GitRepoSituation headSituation = GitUtil.situation(tempDir.toFile());
+
+        // When
+        long startNanos = System.nanoTime();
+        Map<File, GitRepoSituation> moduleSituations = GitUtil.moduleSituations(
+                tempDir.toFile(), headSituation, moduleDirectories, emptyList(), new Timings());
+        long durationMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        // Then
+        System.out.println("moduleSituations: " + PER_MODULE_MODULE_COUNT + " modules, "
+                + PER_MODULE_COMMIT_COUNT + " commits, " + durationMillis + " ms");
+        for (int i = 0; i < PER_MODULE_MODULE_COUNT; i++) {
+            // first commit contains all module poms, change j is commit j + 1 and changes module j % module count
+            ObjectId expectedCommit = i < PER_MODULE_COMMIT_COUNT
+                    ? commits.get(i + (PER_MODULE_COMMIT_COUNT - 1 - i) / PER_MODULE_MODULE_COUNT * PER_MODULE_MODULE_COUNT + 1)
+                    : commits.get(0);
+            assertThat(moduleSituations.get(moduleDirectories.get(i)).getHeadCommit()).isEqualTo(expectedCommit.name());
+        }
+        assertThat(durationMillis).isLessThanOrEqualTo(MODULE_SITUATIONS_BUDGET_MILLIS);
+    }
+
+    @Test
+    void changedModules_largeReactor() throws Exception {
+        // Given
+        List<ObjectId> commits;
+        try (SyntheticRepository repository = SyntheticRepository.init(tempDir)) {
+            repository.addReactor(PER_MODULE_MODULE_COUNT)
+                    .commit(1)
+                    .commitModuleChanges(PER_MODULE_MODULE_COUNT, PER_MODULE_COMMIT_COUNT);
+            commits = repository.getCommits();
+        }
+        List<File> moduleDirectories = new ArrayList<>();
+        moduleDirectories.add(tempDir.toFile());
+        for (int i = 0; i < PER_MODULE_MODULE_COUNT; i++) {
+            moduleDirectories.add(tempDir.resolve(String.format("module-%04d", i)).toFile());
+        }
+        int changedModuleCount = Math.min(10, PER_MODULE_MODULE_COUNT);
+        String baseRev = commits.get(commits.size() - 1 - changedModuleCount).name();
+
+        // When
+        long startNanos = System.nanoTime();
+        Set<File> changedModules = GitUtil.changedModules(tempDir.toFile(), baseRev, moduleDirectories, new Timings());
+        long durationMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        // Then
+        System.out.println("changedModules: " + PER_MODULE_MODULE_COUNT + " modules, "
+                + PER_MODULE_COMMIT_COUNT + " commits, " + durationMillis + " ms");
+        assertThat(changedModules).hasSize(changedModuleCount);
+        assertThat(durationMillis).isLessThanOrEqualTo(CHANGED_MODULES_BUDGET_MILLIS);
+    }
+
+    @Test
+    void extension_largeReactor() throws Exception {
+        // Given
+        try (SyntheticRepository repository = SyntheticRepository.init(tempDir)) {
+            repository.addReactor(MODULE_COUNT)
+                    .commit(1);
+        }
+
+        // When
+        Verifier verifier = new Verifier(tempDir.toFile().getAbsolutePath());
+        verifier.addCliOption("--offline");
+        long startNanos = System.nanoTime();
+        verifier.executeGoal("validate");
+        long durationMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        // Then
+        String log = new String(Files.readAllBytes(Paths.get(verifier.getBasedir(), verifier.getLogFileName())));
+        assertThat(log).doesNotContain("[ERROR]");
+
+        File reportFile = tempDir.resolve("target").resolve(TimingsReport.REPORT_FILE_NAME).toFile();
+        JsonNode modelProcess = new ObjectMapper().readTree(reportFile).get("phases").get("model.process");
+        System.out.println("reactor: " + durationMillis + " ms, model.process " + modelProcess);
+        assertThat(durationMillis).isLessThanOrEqualTo(REACTOR_BUDGET_MILLIS);
+        assertThat(modelProcess.get("totalMillis").asDouble()).isLessThanOrEqualTo(MODEL_PROCESS_BUDGET_MILLIS);
+    }
+
+    @Test
+    void print_largeReactor() throws Exception {
+        // Given
+        try (SyntheticRepository repository = SyntheticRepository.init(tempDir)) {
+            repository.addReactor(MODULE_COUNT)
+                    .commit(1);
+        }
+
+        // When
+        long startNanos = System.nanoTime();
+        Verifier helpVerifier = quietVerifier("help-evaluate.log");
+        helpVerifier.addCliOption("-Dexpression=project.version");
+        helpVerifier.addCliOption("-DforceStdout");
+        helpVerifier.executeGoal("help:evaluate");
+        long helpEvaluateMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        startNanos = System.nanoTime();
+        Verifier printVerifier = quietVerifier("print.log");
+        printVerifier.addCliOption("-Dprint.format=version");
+        printVerifier.executeGoal("git-versioning-extension:print");
+        long printMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        // Then
+        System.out.println("print: " + MODULE_COUNT + " modules, help:evaluate " + helpEvaluateMillis + " ms, "
+                + "print " + printMillis + " ms");
+        String helpEvaluateVersion = new String(Files.readAllBytes(Paths.get(helpVerifier.getBasedir(), "help-evaluate.log"))).trim();
+        String printVersion = new String(Files.readAllBytes(Paths.get(printVerifier.getBasedir(), "print.log"))).trim();
+        assertThat(printVersion).isNotEmpty().isEqualTo(helpEvaluateVersion);
+        assertThat(printMillis).isLessThan(helpEvaluateMillis);
+    }
+
+    private Verifier quietVerifier(String logFileName) throws Exception {
+        Verifier verifier = new Verifier(tempDir.toFile().getAbsolutePath());
+        verifier.setLogFileName(logFileName);
+        verifier.setAutoclean(false);
+        verifier.addCliOption("--offline");
+        verifier.addCliOption("--quiet");
+        return verifier;
+    }
+
+    private static long threadAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(
+                Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,75 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelCacheTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void read_cached() throws IOException {
+        // Given
+        File pomFile = writeModel(projectDir.resolve("pom.xml").toFile(), "1.0.0");
+        ModelCache modelCache = new ModelCache();
+
+        // When
+        Model firstModel = modelCache.read(pomFile);
+        Model secondModel = modelCache.read(pomFile);
+
+        // Then
+        assertThat(firstModel.getVersion()).isEqualTo("1.0.0");
+        assertThat(firstModel.getPomFile()).isEqualTo(pomFile);
+        assertThat(secondModel).isSameAs(firstModel);
+    }
+
+    @Test
+    void read_modifiedPomFile() throws IOException {
+        // Given
+        File pomFile = writeModel(projectDir.resolve("pom.xml").toFile(), "1.0.0");
+        ModelCache modelCache = new ModelCache();
+        Model firstModel = modelCache.read(pomFile);
+
+        writeModel(pomFile, "2.0.0");
+        pomFile.setLastModified(pomFile.lastModified() + 1000);
+
+        // When
+        Model secondModel = modelCache.read(pomFile);
+
+        // Then
+        assertThat(firstModel.getVersion()).isEqualTo("1.0.0");
+        assertThat(secondModel.getVersion()).isEqualTo("2.0.0");
+    }
+
+    @Test
+    void put() throws IOException {
+        // Given
+        File pomFile = writeModel(projectDir.resolve("pom.xml").toFile(), "1.0.0");
+        ModelCache modelCache = new ModelCache();
+        Model model = new ModelCache().read(pomFile);
+
+        // When
+        modelCache.put(pomFile, model);
+
+        // Then
+        assertThat(modelCache.read(pomFile)).isSameAs(model);
+    }
+
+    private File writeModel(File pomFile, String version) throws IOException {
+        Model model = new Model();
+        model.setModelVersion("4.0.0");
+        model.setGroupId("test");
+        model.setArtifactId("test-artifact");
+        model.setVersion(version);
+        MavenUtil.writeModel(pomFile, model);
+        return pomFile;
+    }
+}
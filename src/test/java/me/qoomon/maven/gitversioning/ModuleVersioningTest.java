@@ -0,0 +1,246 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.CommitGraphWriter;
+import me.qoomon.gitversioning.GitRepoSituation;
+import me.qoomon.gitversioning.GitUtil;
+import me.qoomon.gitversioning.Timings;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.eclipse.jgit.lib.Constants.MASTER;
+
+class ModuleVersioningTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void lastCommits() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        RevCommit initialCommit = commit(git, "pom.xml", "a/pom.xml", "a/nested/pom.xml", "b/pom.xml");
+        RevCommit nestedCommit = commit(git, "a/nested/src/file.txt");
+        RevCommit aCommit = commit(git, "a/src/file.txt");
+        RevCommit rootCommit = commit(git, "README.md");
+
+        // when
+        Map<String, ObjectId> lastCommits = GitUtil.lastCommits(git.getRepository(), asList("", "a", "a/nested", "b", "c"));
+
+        // then
+        assertThat(lastCommits)
+                .containsEntry("", rootCommit)
+                .containsEntry("a", aCommit)
+                .containsEntry("a/nested", nestedCommit)
+                .containsEntry("b", initialCommit)
+                .doesNotContainKey("c");
+    }
+
+    @Test
+    void lastCommits_directoriesWithoutFiles() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        RevCommit initialCommit = commit(git, "pom.xml", "a/nested/pom.xml", "b/pom.xml");
+        git.rm().addFilepattern("b/pom.xml").call();
+        RevCommit removeCommit = git.commit().setMessage("remove b").call();
+        Files.createDirectories(projectDir.resolve("c"));
+
+        // when
+        Map<String, ObjectId> lastCommits = GitUtil.lastCommits(git.getRepository(), asList("", "a", "a/nested", "b", "c"));
+
+        // then
+        // files of nested directories are not part of the directory, removed files are not part of HEAD tree
+        assertThat(lastCommits)
+                .containsOnlyKeys("", "a/nested")
+                .containsEntry("", initialCommit)
+                .containsEntry("a/nested", initialCommit)
+                .doesNotContainValue(removeCommit);
+    }
+
+    @Test
+    void lastCommits_mergeHistory() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "a/pom.xml", "b/pom.xml");
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        commit(git, "a/src/feature.txt");
+        git.checkout().setName(MASTER).call();
+        RevCommit bCommit = commit(git, "b/src/master.txt");
+        git.merge().include(git.getRepository().resolve("feature")).setCommit(false).call();
+        RevCommit mergeCommit = git.commit().setMessage("merge feature").call();
+
+        // when
+        Map<String, ObjectId> lastCommits = GitUtil.lastCommits(git.getRepository(), asList("a", "b"));
+
+        // then
+        assertThat(lastCommits)
+                .containsEntry("a", mergeCommit)
+                .containsEntry("b", bCommit);
+    }
+
+    @Test
+    void lastCommits_commitGraph() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        RevCommit initialCommit = commit(git, "a/pom.xml", "b/pom.xml", "c/pom.xml");
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        commit(git, "a/src/feature.txt");
+        git.checkout().setName(MASTER).call();
+        commit(git, "b/src/master.txt");
+        git.merge().include(git.getRepository().resolve("feature")).setCommit(false).call();
+        RevCommit mergeCommit = git.commit().setMessage("merge feature").call();
+        CommitGraphWriter.write(git.getRepository());
+        RevCommit headCommit = commit(git, "b/src/after-commit-graph.txt");
+
+        // when
+        Map<String, ObjectId> lastCommits = GitUtil.lastCommits(git.getRepository(), asList("a", "b", "c", "d"));
+
+        // then
+        assertThat(lastCommits)
+                .containsEntry("a", mergeCommit)
+                .containsEntry("b", headCommit)
+                .containsEntry("c", initialCommit)
+                .doesNotContainKey("d");
+    }
+
+    @Test
+    void moduleSituations() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        RevCommit initialCommit = commit(git, "pom.xml", "a/pom.xml", "b/pom.xml");
+        git.tag().setName("b-1.0.0").call();
+        RevCommit headCommit = commit(git, "a/src/file.txt");
+        GitRepoSituation headSituation = GitUtil.situation(projectDir.toFile());
+        File moduleA = projectDir.resolve("a").toFile();
+        File moduleB = projectDir.resolve("b").toFile();
+
+        // when
+        Map<File, GitRepoSituation> moduleSituations = GitUtil.moduleSituations(projectDir.toFile(), headSituation,
+                asList(projectDir.toFile(), moduleA, moduleB), emptyList(), new Timings());
+
+        // then
+        // files of nested modules are not part of the root module
+        assertThat(moduleSituations.get(projectDir.toFile()).getHeadCommit()).isEqualTo(initialCommit.name());
+        assertThat(moduleSituations.get(moduleA)).isSameAs(headSituation);
+        assertThat(headSituation.getHeadCommit()).isEqualTo(headCommit.name());
+        assertThat(headSituation.getHeadCommitTime()).isEqualTo(headCommit.getCommitTime());
+        GitRepoSituation moduleBSituation = moduleSituations.get(moduleB);
+        assertThat(moduleBSituation.getHeadCommit()).isEqualTo(initialCommit.name());
+        assertThat(moduleBSituation.getHeadCommitTime()).isEqualTo(initialCommit.getCommitTime());
+        assertThat(moduleBSituation.getHeadTags()).containsExactly("b-1.0.0");
+        assertThat(moduleBSituation.getHeadBranch()).isEqualTo(MASTER);
+        assertThat(headSituation.getHeadDescribe()).startsWith("b-1.0.0-1-g");
+        assertThat(moduleBSituation.getHeadDescribe()).isEqualTo("b-1.0.0");
+    }
+
+    @Test
+    void changedDirectories_sinceTag() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "pom.xml", "a/pom.xml", "a/nested/pom.xml", "b/pom.xml");
+        git.tag().setName("v1.0.0").call();
+        commit(git, "a/nested/src/file.txt");
+        commit(git, "README.md");
+
+        // when
+        Set<String> changedDirectories = GitUtil.changedDirectories(git.getRepository(), "v1.0.0",
+                asList("", "a", "a/nested", "b"));
+
+        // then
+        assertThat(changedDirectories).containsExactlyInAnyOrder("", "a/nested");
+    }
+
+    @Test
+    void changedDirectories_sinceMergeBase() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "a/pom.xml", "b/pom.xml");
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        commit(git, "a/src/feature.txt");
+        git.checkout().setName(MASTER).call();
+        commit(git, "b/src/master.txt");
+        git.checkout().setName("feature").call();
+
+        // when
+        Set<String> changedDirectories = GitUtil.changedDirectories(git.getRepository(), MASTER, asList("a", "b"));
+
+        // then
+        // changes of master since merge base are not part of feature branch changes
+        assertThat(changedDirectories).containsExactly("a");
+    }
+
+    @Test
+    void changedDirectories_sinceMergeBase_commitGraph() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "a/pom.xml", "b/pom.xml", "c/pom.xml");
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        commit(git, "a/src/feature.txt");
+        git.checkout().setName(MASTER).call();
+        commit(git, "b/src/master.txt");
+        CommitGraphWriter.write(git.getRepository());
+        git.checkout().setName("feature").call();
+        commit(git, "c/src/feature.txt");
+
+        // when
+        Set<String> changedDirectories = GitUtil.changedDirectories(git.getRepository(), MASTER, asList("a", "b", "c"));
+
+        // then
+        assertThat(changedDirectories).containsExactlyInAnyOrder("a", "c");
+    }
+
+    @Test
+    void changedDirectories_unknownRevision() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "pom.xml");
+
+        // when
+        Throwable throwable = catchThrowable(() -> GitUtil.changedDirectories(git.getRepository(), "v9.9.9", asList("")));
+
+        // then
+        assertThat(throwable).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("v9.9.9");
+    }
+
+    @Test
+    void changedModules() throws Exception {
+        // given
+        Git git = Git.init().setDirectory(projectDir.toFile()).call();
+        commit(git, "pom.xml", "a/pom.xml", "b/pom.xml");
+        RevCommit baseCommit = commit(git, "b/src/file.txt");
+        commit(git, "a/src/file.txt");
+        File moduleA = projectDir.resolve("a").toFile();
+        File moduleB = projectDir.resolve("b").toFile();
+
+        // when
+        Set<File> changedModules = GitUtil.changedModules(projectDir.toFile(), baseCommit.name(),
+                asList(projectDir.toFile(), moduleA, moduleB), new Timings());
+
+        // then
+        assertThat(changedModules).containsExactly(moduleA);
+        assertThat(ChangedModules.format(projectDir.toFile(), changedModules)).isEqualTo("a");
+    }
+
+    private RevCommit commit(Git git, String... paths) throws Exception {
+        for (String path : paths) {
+            File file = projectDir.resolve(path).toFile();
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.write(file.toPath(), (path + "\n").getBytes(UTF_8));
+            git.add().addFilepattern(path).call();
+        }
+        return git.commit().setMessage("change " + String.join(", ", paths)).call();
+    }
+}
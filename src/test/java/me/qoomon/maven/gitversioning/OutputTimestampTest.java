@@ -0,0 +1,62 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.GitVersionDetails;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutputTimestampTest {
+
+    static final long COMMIT_TIME = 1577836800; // 2020-01-01T00:00:00Z
+    static final long BUILD_START_TIME = 1609459200; // 2021-01-01T00:00:00Z
+
+    @Test
+    void of_clean() {
+        // when
+        String outputTimestamp = OutputTimestamp.of(versionDetails(true, COMMIT_TIME),
+                OutputTimestamp.DIRTY_SKIP, BUILD_START_TIME);
+
+        // then
+        assertThat(outputTimestamp).isEqualTo("2020-01-01T00:00:00Z");
+    }
+
+    @Test
+    void of_unknownCommitTime() {
+        // when
+        String outputTimestamp = OutputTimestamp.of(versionDetails(true, 0),
+                OutputTimestamp.DIRTY_NOW, BUILD_START_TIME);
+
+        // then
+        assertThat(outputTimestamp).isNull();
+    }
+
+    @Test
+    void of_dirty() {
+        // given
+        GitVersionDetails versionDetails = versionDetails(false, COMMIT_TIME);
+
+        // then
+        assertThat(OutputTimestamp.of(versionDetails, OutputTimestamp.DIRTY_COMMIT, BUILD_START_TIME))
+                .isEqualTo("2020-01-01T00:00:00Z");
+        assertThat(OutputTimestamp.of(versionDetails, OutputTimestamp.DIRTY_NOW, BUILD_START_TIME))
+                .isEqualTo("2021-01-01T00:00:00Z");
+        assertThat(OutputTimestamp.of(versionDetails, OutputTimestamp.DIRTY_SKIP, BUILD_START_TIME))
+                .isNull();
+    }
+
+    @Test
+    void dirtyPolicy() {
+        assertThat(OutputTimestamp.dirtyPolicy(null)).isEqualTo(OutputTimestamp.DIRTY_NOW);
+        assertThat(OutputTimestamp.dirtyPolicy("commit")).isEqualTo(OutputTimestamp.DIRTY_COMMIT);
+        assertThatThrownBy(() -> OutputTimestamp.dirtyPolicy("never"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(OutputTimestamp.DIRTY_OPTION);
+    }
+
+    private static GitVersionDetails versionDetails(boolean clean, long commitTime) {
+        return new GitVersionDetails(clean, "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b",
+                "commit", "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b", emptyMap(), "1.0.0", commitTime);
+    }
+}
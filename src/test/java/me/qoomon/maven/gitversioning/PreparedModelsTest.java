@@ -0,0 +1,126 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.building.DefaultModelProcessor;
+import org.apache.maven.model.building.FileModelSource;
+import org.apache.maven.model.io.DefaultModelReader;
+import org.apache.maven.model.io.ModelReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PreparedModelsTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void get_linksInputSource() throws IOException {
+        // Given
+        File pomFile = writeModel(projectDir.resolve("pom.xml").toFile(), "1.0.0");
+        PreparedModels preparedModels = new PreparedModels();
+        Model virtualProjectModel = prepare(preparedModels, pomFile, mavenOptions(pomFile, true, new InputSource()));
+
+        InputSource mavenInputSource = new InputSource();
+        mavenInputSource.setLocation(pomFile.getAbsolutePath());
+
+        // When
+        PreparedModels.PreparedModel preparedModel = preparedModels.get(mavenOptions(pomFile, true, mavenInputSource));
+        mavenInputSource.setModelId("test:test-artifact:1.0.0");
+
+        // Then
+        assertThat(preparedModel).isNotNull();
+        assertThat(preparedModel.getVirtualProjectModel()).isSameAs(virtualProjectModel);
+        InputSource locationSource = virtualProjectModel.getLocation("version").getSource();
+        assertThat(locationSource.getModelId()).isEqualTo("test:test-artifact:1.0.0");
+        assertThat(locationSource.getLocation()).isEqualTo(pomFile.getAbsolutePath());
+    }
+
+    @Test
+    void get_modifiedPomFile() throws IOException {
+        // Given
+        File pomFile = writeModel(projectDir.resolve("pom.xml").toFile(), "1.0.0");
+        PreparedModels preparedModels = new PreparedModels();
+        prepare(preparedModels, pomFile, mavenOptions(pomFile, true, null));
+
+        writeModel(pomFile, "2.0.0");
+        pomFile.setLastModified(pomFile.lastModified() + 1000);
+
+        // When
+        PreparedModels.PreparedModel preparedModel = preparedModels.get(mavenOptions(pomFile, true, null));
+
+        // Then
+        assertThat(preparedModel).isNull();
+    }
+
+    @Test
+    void get_differentOptions() throws IOException {
+        // Given
+        File pomFile = writeModel(projectDir.resolve("pom.xml").toFile(), "1.0.0");
+        PreparedModels preparedModels = new PreparedModels();
+        prepare(preparedModels, pomFile, mavenOptions(pomFile, true, null));
+
+        // When
+        PreparedModels.PreparedModel lenientModel = preparedModels.get(mavenOptions(pomFile, false, null));
+        PreparedModels.PreparedModel locationTrackingModel = preparedModels.get(mavenOptions(pomFile, true, new InputSource()));
+        PreparedModels.PreparedModel strictModel = preparedModels.get(mavenOptions(pomFile, true, null));
+
+        // Then
+        assertThat(lenientModel).isNull();
+        assertThat(locationTrackingModel).isNull();
+        assertThat(strictModel).isNotNull();
+    }
+
+    @Test
+    void get_unknownPomFile() throws IOException {
+        // Given
+        File pomFile = writeModel(projectDir.resolve("pom.xml").toFile(), "1.0.0");
+        File otherPomFile = writeModel(projectDir.resolve("other.xml").toFile(), "1.0.0");
+        PreparedModels preparedModels = new PreparedModels();
+        prepare(preparedModels, pomFile, mavenOptions(pomFile, true, null));
+
+        // When
+        PreparedModels.PreparedModel preparedModel = preparedModels.get(mavenOptions(otherPomFile, true, null));
+
+        // Then
+        assertThat(preparedModel).isNull();
+    }
+
+    private static Model prepare(PreparedModels preparedModels, File pomFile, Map<String, ?> options) throws IOException {
+        long lastModified = pomFile.lastModified();
+        Map<String, Object> readOptions = PreparedModels.readOptions(pomFile, options);
+        DefaultModelProcessor modelProcessor = new DefaultModelProcessor().setModelReader(new DefaultModelReader());
+        Model projectModel = modelProcessor.read(pomFile, readOptions);
+        Model virtualProjectModel = projectModel.clone();
+        preparedModels.put(pomFile, lastModified, readOptions, projectModel, virtualProjectModel);
+        return virtualProjectModel;
+    }
+
+    private static Map<String, Object> mavenOptions(File pomFile, boolean strict, InputSource inputSource) {
+        Map<String, Object> options = new HashMap<>();
+        options.put(ModelReader.IS_STRICT, strict);
+        options.put(org.apache.maven.model.building.ModelProcessor.SOURCE, new FileModelSource(pomFile));
+        if (inputSource != null) {
+            options.put(ModelReader.INPUT_SOURCE, inputSource);
+        }
+        return options;
+    }
+
+    private static File writeModel(File pomFile, String version) throws IOException {
+        Model model = new Model();
+        model.setModelVersion("4.0.0");
+        model.setGroupId("test");
+        model.setArtifactId("test-artifact");
+        model.setVersion(version);
+        MavenUtil.writeModel(pomFile, model);
+        return pomFile;
+    }
+}
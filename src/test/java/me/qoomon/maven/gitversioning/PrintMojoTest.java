@@ -0,0 +1,29 @@
+package me.qoomon.maven.gitversioning;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrintMojoTest {
+
+    @Test
+    void isPrintOnly() {
+        assertThat(PrintMojo.isPrintOnly(singletonList("git-versioning-extension:print"))).isTrue();
+        assertThat(PrintMojo.isPrintOnly(singletonList(
+                BuildProperties.projectGroupId() + ":" + BuildProperties.projectArtifactId() + ":print"))).isTrue();
+        assertThat(PrintMojo.isPrintOnly(singletonList(
+                BuildProperties.projectGroupId() + ":" + BuildProperties.projectArtifactId() + ":"
+                        + BuildProperties.projectVersion() + ":print"))).isTrue();
+    }
+
+    @Test
+    void isPrintOnly_otherGoals() {
+        assertThat(PrintMojo.isPrintOnly(emptyList())).isFalse();
+        assertThat(PrintMojo.isPrintOnly(asList("git-versioning-extension:print", "verify"))).isFalse();
+        assertThat(PrintMojo.isPrintOnly(singletonList("other:print"))).isFalse();
+        assertThat(PrintMojo.isPrintOnly(singletonList("git-versioning-extension:lock"))).isFalse();
+    }
+}
@@ -0,0 +1,108 @@
+package me.qoomon.maven.gitversioning;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static me.qoomon.maven.gitversioning.VersioningMojo.GIT_VERSIONING_POM_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectPomsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void isProjectPom() throws IOException {
+        // Given
+        ProjectPoms projectPoms = new ProjectPoms(tempDir.resolve("repository").toFile());
+        CountingFile pomFile = new CountingFile(touch(tempDir.resolve("project/pom.xml")));
+
+        // When
+        boolean firstResult = projectPoms.isProjectPom(pomFile);
+        boolean secondResult = projectPoms.isProjectPom(pomFile);
+
+        // Then
+        assertThat(firstResult).isTrue();
+        assertThat(secondResult).isTrue();
+        assertThat(pomFile.fileSystemAccesses).isEqualTo(1);
+    }
+
+    @Test
+    void isProjectPom_missingPomFile() {
+        // Given
+        ProjectPoms projectPoms = new ProjectPoms(tempDir.resolve("repository").toFile());
+
+        // When
+        boolean result = projectPoms.isProjectPom(tempDir.resolve("project/pom.xml").toFile());
+
+        // Then
+        assertThat(result).isFalse();
+        assertThat(projectPoms.isProjectPom(null)).isFalse();
+    }
+
+    @Test
+    void isProjectPom_repositoryPomFile() throws IOException {
+        // Given
+        ProjectPoms projectPoms = new ProjectPoms(tempDir.resolve("repository").toFile());
+        CountingFile dependencyPomFile = new CountingFile(touch(tempDir.resolve("repository/org/example/lib/1.0/lib-1.0.pom")));
+        CountingFile repositoryXmlFile = new CountingFile(touch(tempDir.resolve("repository/org/example/lib/1.0/pom.xml")));
+
+        // When
+        boolean dependencyPomResult = projectPoms.isProjectPom(dependencyPomFile);
+        boolean repositoryXmlResult = projectPoms.isProjectPom(repositoryXmlFile);
+
+        // Then
+        assertThat(dependencyPomResult).isFalse();
+        assertThat(repositoryXmlResult).isFalse();
+        assertThat(dependencyPomFile.fileSystemAccesses).isZero();
+        assertThat(repositoryXmlFile.fileSystemAccesses).isZero();
+    }
+
+    @Test
+    void isProjectPom_gitVersionedPomFile() throws IOException {
+        // Given
+        ProjectPoms projectPoms = new ProjectPoms(tempDir.resolve("repository").toFile());
+        File gitVersionedPomFile = touch(tempDir.resolve("project/target/" + GIT_VERSIONING_POM_NAME));
+        boolean firstResult = projectPoms.isProjectPom(gitVersionedPomFile);
+
+        Files.delete(gitVersionedPomFile.toPath());
+
+        // When
+        boolean secondResult = projectPoms.isProjectPom(gitVersionedPomFile);
+
+        // Then
+        assertThat(firstResult).isTrue();
+        assertThat(secondResult).isFalse();
+    }
+
+    private static File touch(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.createFile(file).toFile();
+    }
+
+    private static class CountingFile extends File {
+
+        int fileSystemAccesses;
+
+        CountingFile(File file) {
+            super(file.getPath());
+        }
+
+        @Override
+        public boolean exists() {
+            fileSystemAccesses++;
+            return super.exists();
+        }
+
+        @Override
+        public boolean isFile() {
+            fileSystemAccesses++;
+            return super.isFile();
+        }
+    }
+}
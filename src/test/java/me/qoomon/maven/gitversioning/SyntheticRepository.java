@@ -0,0 +1,287 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.CommitGraphWriter;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.lib.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.jgit.lib.Constants.*;
+
+/**
+ * Generates large git repositories for performance tests.
+ * <p>
+ * Objects are written directly into a pack file and the index is built from already known blob ids,
+ * so no checkout or working tree scan is needed to create a clean repository.
+ */
+class SyntheticRepository implements AutoCloseable {
+
+    private static final PersonIdent AUTHOR = new PersonIdent("Performance Test", "performance@test", 0, 0);
+
+    private final Path directory;
+    private final Repository repository;
+    private final ObjectInserter inserter;
+
+    private final Map<String, DirCacheEntry> index = new TreeMap<>();
+    private final List<ObjectId> commits = new ArrayList<>();
+
+    private SyntheticRepository(Path directory, Repository repository) {
+        this.directory = directory;
+        this.repository = repository;
+        this.inserter = ((ObjectDirectory) repository.getObjectDatabase()).newPackInserter();
+    }
+
+    static SyntheticRepository init(Path directory) throws Exception {
+        Repository repository = Git.init().setDirectory(directory.toFile()).call().getRepository();
+        return new SyntheticRepository(directory, repository);
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    Repository getRepository() {
+        return repository;
+    }
+
+    List<ObjectId> getCommits() {
+        return commits;
+    }
+
+    /**
+     * Write file to working tree and stage it.
+     */
+    SyntheticRepository addFile(String path, String content) throws IOException {
+        byte[] bytes = content.getBytes(UTF_8);
+        File file = directory.resolve(path).toFile();
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), bytes);
+        // avoid racily clean index entries, those would be rehashed by every status call
+        file.setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+
+        DirCacheEntry entry = new DirCacheEntry(path);
+        entry.setFileMode(FileMode.REGULAR_FILE);
+        entry.setLength(bytes.length);
+        entry.setLastModified(file.lastModified());
+        entry.setObjectId(inserter.insert(OBJ_BLOB, bytes));
+        index.put(path, entry);
+        return this;
+    }
+
+    /**
+     * Write <code>fileCount</code> files, 1000 per directory.
+     */
+    SyntheticRepository addFiles(int fileCount) throws IOException {
+        for (int i = 0; i < fileCount; i++) {
+            addFile(String.format("files/dir-%04d/file-%07d.txt", i / 1000, i), "file " + i + "\n");
+        }
+        return this;
+    }
+
+    /**
+     * Write multi module project, with <code>moduleCount</code> modules, configured to use this extension.
+     */
+    SyntheticRepository addReactor(int moduleCount) throws IOException {
+        Model rootModel = new Model();
+        rootModel.setModelVersion("4.0.0");
+        rootModel.setGroupId("test");
+        rootModel.setArtifactId("root");
+        rootModel.setVersion("0.0.0");
+        rootModel.setPackaging("pom");
+        for (int i = 0; i < moduleCount; i++) {
+            String module = String.format("module-%04d", i);
+            rootModel.addModule(module);
+            addFile(module + "/pom.xml", "" +
+                    "<project>\n" +
+                    "  <modelVersion>4.0.0</modelVersion>\n" +
+                    "  <parent>\n" +
+                    "    <groupId>test</groupId>\n" +
+                    "    <artifactId>root</artifactId>\n" +
+                    "    <version>0.0.0</version>\n" +
+                    "  </parent>\n" +
+                    "  <artifactId>" + module + "</artifactId>\n" +
+                    "  <packaging>pom</packaging>\n" +
+                    "</project>\n");
+        }
+        StringWriter rootPom = new StringWriter();
+        new MavenXpp3Writer().write(rootPom, rootModel);
+        addFile("pom.xml", rootPom.toString());
+        addFile(".mvn/extensions.xml", "" +
+                "<extensions>\n" +
+                "  <extension>\n" +
+                "    <groupId>" + BuildProperties.projectGroupId() + "</groupId>\n" +
+                "    <artifactId>" + BuildProperties.projectArtifactId() + "</artifactId>\n" +
+                "    <version>" + BuildProperties.projectVersion() + "</version>\n" +
+                "  </extension>\n" +
+                "</extensions>\n");
+        return this;
+    }
+
+    /**
+     * Write index and create a linear history of <code>commitCount</code> commits on master,
+     * the first commit contains all staged files.
+     */
+    SyntheticRepository commit(int commitCount) throws IOException {
+        DirCache dirCache = repository.lockDirCache();
+        DirCacheBuilder builder = dirCache.builder();
+        index.values().forEach(builder::add);
+        builder.finish();
+        ObjectId treeId = dirCache.writeTree(inserter);
+        dirCache.write();
+        dirCache.commit();
+
+        insertCommits(treeId, commitCount);
+        inserter.flush();
+
+        RefUpdate refUpdate = repository.updateRef(R_HEADS + MASTER);
+        refUpdate.setNewObjectId(commits.get(commits.size() - 1));
+        refUpdate.forceUpdate();
+        return this;
+    }
+
+    /**
+     * Create <code>commitCount</code> commits, each changing a file of one reactor module, modules are changed round robin.
+     */
+    SyntheticRepository commitModuleChanges(int moduleCount, int commitCount) throws IOException {
+        for (int i = 0; i < commitCount; i++) {
+            addFile(String.format("module-%04d/src/change.txt", i % moduleCount), "change " + i + "\n");
+            // intermediate trees are built in memory, index file is written once by final commit
+            DirCache dirCache = DirCache.newInCore();
+            DirCacheBuilder builder = dirCache.builder();
+            index.values().forEach(builder::add);
+            builder.finish();
+            insertCommits(dirCache.writeTree(inserter), 1);
+        }
+        return commit(0);
+    }
+
+    private void insertCommits(ObjectId treeId, int commitCount) throws IOException {
+        ObjectId parentId = commits.isEmpty() ? null : commits.get(commits.size() - 1);
+        for (int i = 0; i < commitCount; i++) {
+            CommitBuilder commit = new CommitBuilder();
+            commit.setTreeId(treeId);
+            if (parentId != null) {
+                commit.setParentId(parentId);
+            }
+            PersonIdent ident = new PersonIdent(AUTHOR, commits.size() * 1000L, 0);
+            commit.setAuthor(ident);
+            commit.setCommitter(ident);
+            commit.setMessage("commit " + commits.size());
+            parentId = inserter.insert(commit);
+            commits.add(parentId);
+        }
+    }
+
+    /**
+     * Create <code>tagCount</code> tags evenly spread over the history, excluding HEAD.
+     * Every second tag is annotated, every tenth tag is a loose ref, all others are packed.
+     */
+    SyntheticRepository tag(int tagCount) throws IOException {
+        // packed-refs is written directly, a batch ref update would lock every single ref file
+        StringBuilder packedRefs = new StringBuilder("# pack-refs with: peeled fully-peeled sorted \n");
+        Map<String, ObjectId> looseTags = new TreeMap<>();
+        Map<String, String> packedTags = new TreeMap<>();
+        int historySize = Math.max(commits.size() - 1, 1);
+        for (int i = 0; i < tagCount; i++) {
+            ObjectId commitId = commits.get((int) ((long) i * historySize / tagCount));
+            String tagName = String.format("v%d.%d.%d", i / 10000, i / 100 % 100, i % 100);
+
+            ObjectId tagTargetId = commitId;
+            String packedRef = commitId.name() + " " + R_TAGS + tagName + "\n";
+            if (i % 2 == 0) {
+                TagBuilder tag = new TagBuilder();
+                tag.setTag(tagName);
+                tag.setObjectId(commitId, OBJ_COMMIT);
+                tag.setTagger(AUTHOR);
+                tag.setMessage("tag " + tagName);
+                tagTargetId = inserter.insert(tag);
+                packedRef = tagTargetId.name() + " " + R_TAGS + tagName + "\n" + "^" + commitId.name() + "\n";
+            }
+
+            if (i % 10 == 0) {
+                looseTags.put(tagName, tagTargetId);
+            } else {
+                packedTags.put(R_TAGS + tagName, packedRef);
+            }
+        }
+        inserter.flush();
+
+        packedTags.values().forEach(packedRefs::append);
+        Files.write(repository.getDirectory().toPath().resolve("packed-refs"), packedRefs.toString().getBytes(UTF_8));
+        for (Map.Entry<String, ObjectId> looseTag : looseTags.entrySet()) {
+            RefUpdate refUpdate = repository.updateRef(R_TAGS + looseTag.getKey());
+            refUpdate.setNewObjectId(looseTag.getValue());
+            refUpdate.forceUpdate();
+        }
+        return this;
+    }
+
+    /**
+     * Create <code>branchCount</code> remote tracking branches of <code>origin</code> evenly spread over the history,
+     * the last branch points at HEAD. Every tenth branch is a loose ref, all others are packed.
+     * <p>
+     * packed-refs is written directly, so packed tags of {@link #tag(int)} are replaced.
+     */
+    SyntheticRepository remoteBranches(int branchCount) throws IOException {
+        StringBuilder packedRefs = new StringBuilder("# pack-refs with: peeled fully-peeled sorted \n");
+        Map<String, ObjectId> looseBranches = new TreeMap<>();
+        Map<String, ObjectId> packedBranches = new TreeMap<>();
+        for (int i = 0; i < branchCount; i++) {
+            ObjectId commitId = commits.get((int) ((long) (i + 1) * commits.size() / branchCount) - 1);
+            String refName = R_REMOTES + String.format("origin/feature/branch-%06d", i);
+            if (i % 10 == 0) {
+                looseBranches.put(refName, commitId);
+            } else {
+                packedBranches.put(refName, commitId);
+            }
+        }
+        packedBranches.forEach((refName, commitId) -> packedRefs.append(commitId.name()).append(' ').append(refName).append('\n'));
+        Files.write(repository.getDirectory().toPath().resolve("packed-refs"), packedRefs.toString().getBytes(UTF_8));
+        for (Map.Entry<String, ObjectId> looseBranch : looseBranches.entrySet()) {
+            RefUpdate refUpdate = repository.updateRef(looseBranch.getKey());
+            refUpdate.setNewObjectId(looseBranch.getValue());
+            refUpdate.forceUpdate();
+        }
+        return this;
+    }
+
+    /**
+     * Detach HEAD at the last commit, like CI checkouts do.
+     */
+    SyntheticRepository detachHead() throws IOException {
+        RefUpdate refUpdate = repository.updateRef(HEAD, true);
+        refUpdate.setNewObjectId(commits.get(commits.size() - 1));
+        refUpdate.forceUpdate();
+        return this;
+    }
+
+    /**
+     * Write commit-graph file of all commits reachable from any ref, like <code>git commit-graph write --reachable</code>.
+     */
+    SyntheticRepository writeCommitGraph() throws IOException {
+        CommitGraphWriter.write(repository);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        inserter.close();
+        repository.close();
+    }
+}
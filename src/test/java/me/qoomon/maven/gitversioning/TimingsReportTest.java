@@ -0,0 +1,61 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.qoomon.gitversioning.Timings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class TimingsReportTest {
+
+    @TempDir
+    Path buildDir;
+
+    @Test
+    void write() throws IOException {
+        // given
+        Timings timings = new Timings();
+        for (int i = 1; i <= 10; i++) {
+            timings.record("model.process", MILLISECONDS.toNanos(i));
+        }
+        timings.record("git.status", MILLISECONDS.toNanos(5));
+        File reportFile = buildDir.resolve("target").resolve(TimingsReport.REPORT_FILE_NAME).toFile();
+
+        // when
+        TimingsReport.write(timings, reportFile);
+
+        // then
+        JsonNode phases = new ObjectMapper().readTree(reportFile).get("phases");
+        assertAll(
+                () -> assertThat((Iterable<String>) phases::fieldNames).containsExactly("model.process", "git.status"),
+                () -> assertThat(phases.get("model.process").get("count").asInt()).isEqualTo(10),
+                () -> assertThat(phases.get("model.process").get("totalMillis").asDouble()).isEqualTo(55.0),
+                () -> assertThat(phases.get("model.process").get("p50Millis").asDouble()).isEqualTo(5.0),
+                () -> assertThat(phases.get("model.process").get("p90Millis").asDouble()).isEqualTo(9.0),
+                () -> assertThat(phases.get("model.process").get("maxMillis").asDouble()).isEqualTo(10.0)
+        );
+    }
+
+    @Test
+    void summary() {
+        // given
+        Timings timings = new Timings();
+        timings.record("model.process", MILLISECONDS.toNanos(20));
+        timings.record("model.process", MILLISECONDS.toNanos(30));
+        timings.record("git.status", MILLISECONDS.toNanos(5));
+
+        // when
+        String summary = TimingsReport.summary(timings);
+
+        // then
+        assertThat(summary).isEqualTo("model.process 2x 50.0 ms, git.status 1x 5.0 ms");
+    }
+}
@@ -0,0 +1,53 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.qoomon.gitversioning.GitVersionDetails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VersionDetailsExportTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void write() throws IOException {
+        // Given
+        GitVersionDetails versionDetails = new GitVersionDetails(true,
+                "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b", "branch", "feature/next",
+                singletonMap("feature", "next"), "next-SNAPSHOT");
+
+        // When
+        VersionDetailsExport.write(VersionDetailsExport.toMap(versionDetails), outputDir.toFile());
+
+        // Then
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(outputDir.resolve(VersionDetailsExport.PROPERTIES_FILE_NAME), UTF_8)) {
+            properties.load(reader);
+        }
+        assertThat(properties)
+                .containsEntry("version", "next-SNAPSHOT")
+                .containsEntry("commit", "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b")
+                .containsEntry("commitRefType", "branch")
+                .containsEntry("commitRefName", "feature/next")
+                .containsEntry("clean", "true")
+                .containsEntry("metaData.feature", "next")
+                .hasSize(6);
+
+        JsonNode json = new ObjectMapper().readTree(outputDir.resolve(VersionDetailsExport.JSON_FILE_NAME).toFile());
+        assertThat(json.get("version").asText()).isEqualTo("next-SNAPSHOT");
+        assertThat(json.get("clean").asBoolean()).isTrue();
+        assertThat(json.get("metaData").get("feature").asText()).isEqualTo("next");
+    }
+}
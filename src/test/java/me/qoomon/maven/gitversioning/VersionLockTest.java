@@ -0,0 +1,72 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.GitRepoSituation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VersionLockTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void write_read() throws IOException {
+        // Given
+        File lockFile = projectDir.resolve(".mvn").resolve(VersionLock.FILE_NAME).toFile();
+        GitRepoSituation repoSituation = new GitRepoSituation(false,
+                "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b", "feature/lock", asList("v1.0.0", "v1.0"), "v1.0.0-0-g0fc2045");
+        repoSituation.setHeadCommitTime(1577836800);
+
+        // When
+        new VersionLock(repoSituation, "1.0.0").write(lockFile);
+        VersionLock versionLock = VersionLock.read(lockFile);
+
+        // Then
+        assertThat(Files.readAllLines(lockFile.toPath(), UTF_8)).containsExactly(
+                "branch=feature/lock",
+                "clean=false",
+                "commit=0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b",
+                "commitTime=1577836800",
+                "describe=v1.0.0-0-g0fc2045",
+                "tags=v1.0.0 v1.0",
+                "version=1.0.0");
+        assertThat(versionLock.getVersion()).isEqualTo("1.0.0");
+        assertThat(versionLock.getRepoSituation()).isEqualToComparingFieldByField(repoSituation);
+    }
+
+    @Test
+    void write_read_detachedHead() throws IOException {
+        // Given
+        File lockFile = projectDir.resolve(VersionLock.FILE_NAME).toFile();
+        GitRepoSituation repoSituation = new GitRepoSituation(true,
+                "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b", null, emptyList(), null);
+
+        // When
+        new VersionLock(repoSituation, "0fc20459a8eceb2c4abb9bf0af45a6e8af17b94b").write(lockFile);
+        VersionLock versionLock = VersionLock.read(lockFile);
+
+        // Then
+        assertThat(versionLock.getRepoSituation()).isEqualToComparingFieldByField(repoSituation);
+    }
+
+    @Test
+    void read_invalid() throws IOException {
+        // Given
+        File lockFile = Files.write(projectDir.resolve(VersionLock.FILE_NAME), "branch=master\n".getBytes(UTF_8)).toFile();
+
+        // When / Then
+        assertThatThrownBy(() -> VersionLock.read(lockFile))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}